@@ -3,6 +3,7 @@ package com.browserstack.appautomate;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.List;
+import java.util.function.Consumer;
 import com.browserstack.automate.Automate.BuildStatus;
 import com.browserstack.automate.exception.AppAutomateException;
 import com.browserstack.automate.exception.BuildNotFound;
@@ -11,8 +12,11 @@ import com.browserstack.automate.exception.SessionNotFound;
 import com.browserstack.automate.model.AppUploadResponse;
 import com.browserstack.automate.model.Build;
 import com.browserstack.automate.model.Session;
+import com.browserstack.client.BatchResult;
 import com.browserstack.client.BrowserStackClient;
 import com.browserstack.client.BrowserStackRequest;
+import com.browserstack.client.HttpTransportConfig;
+import com.browserstack.client.PurgePolicy;
 import com.browserstack.client.exception.BrowserStackException;
 import com.browserstack.client.util.Tools;
 import com.google.api.client.http.FileContent;
@@ -35,6 +39,17 @@ public class AppAutomateClient extends BrowserStackClient implements AppAutomate
     super(System.getProperty("browserstack.app-automate.api", BASE_URL), username, accessKey);
   }
 
+  /**
+   *
+   * @param username Browserstack username
+   * @param accessKey Browserstack accessKey
+   * @param transportConfig Connection pool and timeout settings for this client
+   */
+  public AppAutomateClient(String username, String accessKey, HttpTransportConfig transportConfig) {
+    super(System.getProperty("browserstack.app-automate.api", BASE_URL), username, accessKey,
+        transportConfig);
+  }
+
   /**
    * Gets the session associated with the specified identifier.
    *
@@ -218,6 +233,23 @@ public class AppAutomateClient extends BrowserStackClient implements AppAutomate
     }
   }
 
+  /**
+   * Deletes every build matching a retention policy.
+   *
+   * @param policy Selects the builds to delete.
+   * @return the deleted builds, or the matching builds on a dry run, and the errors of failed
+   *         deletions, by build id.
+   * @throws AppAutomateException exception for AppAutomate sessions.
+   */
+  @Override
+  public BatchResult<Build> purgeBuilds(final PurgePolicy policy) throws AppAutomateException {
+    try {
+      return super.purgeBuilds(policy);
+    } catch (BrowserStackException e) {
+      throw new AppAutomateException(e);
+    }
+  }
+
   /**
    * Retrieves the list of sessions existing under a specific build.
    *
@@ -238,6 +270,48 @@ public class AppAutomateClient extends BrowserStackClient implements AppAutomate
     }
   }
 
+  /**
+   * Retrieves the list of sessions existing under a specific build, fetching several pages
+   * concurrently.
+   *
+   * @param buildId ID that uniquely identifies a build.
+   * @param status Include only builds that match the specified build status.
+   * @param limit Limit results to the specified count.
+   * @param parallelism Maximum number of pages requested at the same time.
+   * @return List of {@link Session} objects containing test session information.
+   * @throws BuildNotFound could not find build with given id
+   * @throws AppAutomateException exception for AppAutomate sessions.
+   */
+  @Override
+  public List<Session> getSessions(final String buildId, final BuildStatus status,
+      final int limit, final int parallelism) throws BuildNotFound, AppAutomateException {
+    try {
+      return super.getSessions(buildId, status, limit, parallelism);
+    } catch (BrowserStackException e) {
+      throw new AppAutomateException(e);
+    }
+  }
+
+  /**
+   * Hands every session of a build to the consumer as it is decoded from the response.
+   *
+   * @param buildId ID that uniquely identifies a build.
+   * @param status Include only sessions that match the specified status.
+   * @param consumer Receives each {@link Session}, in order.
+   * @return number of sessions handed to the consumer.
+   * @throws BuildNotFound could not find build with given id
+   * @throws AppAutomateException exception for AppAutomate sessions.
+   */
+  @Override
+  public int forEachSession(final String buildId, final BuildStatus status,
+      final Consumer<? super Session> consumer) throws BuildNotFound, AppAutomateException {
+    try {
+      return super.forEachSession(buildId, status, consumer);
+    } catch (BrowserStackException e) {
+      throw new AppAutomateException(e);
+    }
+  }
+
   /**
    * Retrieves the list of sessions existing under a specific build.
    *
@@ -0,0 +1,41 @@
+package com.browserstack.appautomate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import com.browserstack.automate.model.AppUploadResponse;
+import com.browserstack.client.AsyncBrowserStackClient;
+
+/**
+ * Non-blocking access to your BrowserStack App Automate tests.
+ */
+public class AsyncAppAutomateClient extends AsyncBrowserStackClient<AppAutomateClient> {
+
+  /**
+   * Runs calls on a private executor of {@value #DEFAULT_MAX_THREADS} threads.
+   *
+   * @param client Blocking client used to perform the calls.
+   */
+  public AsyncAppAutomateClient(AppAutomateClient client) {
+    this(client, DEFAULT_MAX_THREADS);
+  }
+
+  /**
+   * @param client Blocking client used to perform the calls.
+   * @param maxThreads Maximum number of calls running at the same time.
+   */
+  public AsyncAppAutomateClient(AppAutomateClient client, int maxThreads) {
+    super(client, maxThreads);
+  }
+
+  /**
+   * @param client Blocking client used to perform the calls.
+   * @param executor Executor on which calls are run. It is not shut down by {@link #close()}.
+   */
+  public AsyncAppAutomateClient(AppAutomateClient client, Executor executor) {
+    super(client, executor);
+  }
+
+  public CompletableFuture<AppUploadResponse> uploadApp(final String filePath) {
+    return supplyAsync(() -> getClient().uploadApp(filePath));
+  }
+}
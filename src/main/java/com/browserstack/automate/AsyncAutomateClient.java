@@ -0,0 +1,108 @@
+package com.browserstack.automate;
+
+import com.browserstack.automate.Automate.SessionStatus;
+import com.browserstack.automate.model.AccountUsage;
+import com.browserstack.automate.model.Project;
+import com.browserstack.automate.model.Session;
+import com.browserstack.client.AsyncBrowserStackClient;
+import com.browserstack.client.model.Browser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking access to your BrowserStack Automate tests.
+ *
+ * <p>
+ * Mirrors {@link Automate} but returns a {@link CompletableFuture} for every call, so many
+ * requests can be in flight without a caller thread blocked on each of them.
+ * </p>
+ */
+public class AsyncAutomateClient extends AsyncBrowserStackClient<AutomateClient> {
+
+  /**
+   * Runs calls on a private executor of {@value #DEFAULT_MAX_THREADS} threads.
+   *
+   * @param client Blocking client used to perform the calls.
+   */
+  public AsyncAutomateClient(AutomateClient client) {
+    this(client, DEFAULT_MAX_THREADS);
+  }
+
+  /**
+   * @param client Blocking client used to perform the calls.
+   * @param maxThreads Maximum number of calls running at the same time.
+   */
+  public AsyncAutomateClient(AutomateClient client, int maxThreads) {
+    super(client, maxThreads);
+  }
+
+  /**
+   * @param client Blocking client used to perform the calls.
+   * @param executor Executor on which calls are run. It is not shut down by {@link #close()}.
+   */
+  public AsyncAutomateClient(AutomateClient client, Executor executor) {
+    super(client, executor);
+  }
+
+  public CompletableFuture<AccountUsage> getAccountUsage() {
+    return supplyAsync(() -> getClient().getAccountUsage());
+  }
+
+  public CompletableFuture<List<Browser>> getBrowsers() {
+    return supplyAsync(() -> getClient().getBrowsers());
+  }
+
+  public CompletableFuture<List<Browser>> getBrowsers(final boolean cache) {
+    return supplyAsync(() -> getClient().getBrowsers(cache));
+  }
+
+  public CompletableFuture<List<Project>> getProjects() {
+    return supplyAsync(() -> getClient().getProjects());
+  }
+
+  public CompletableFuture<Project> getProject(final int projectId) {
+    return supplyAsync(() -> getClient().getProject(projectId));
+  }
+
+  public CompletableFuture<Boolean> deleteProject(final int projectId) {
+    return supplyAsync(() -> getClient().deleteProject(projectId));
+  }
+
+  public CompletableFuture<Session> updateSessionStatus(final String sessionId,
+      final Map<String, Object> data) {
+    return supplyAsync(() -> getClient().updateSessionStatus(sessionId, data));
+  }
+
+  public CompletableFuture<Session> updateSessionStatus(final String sessionId,
+      final SessionStatus sessionStatus, final String reason) {
+    return supplyAsync(() -> getClient().updateSessionStatus(sessionId, sessionStatus, reason));
+  }
+
+  public CompletableFuture<Session> updateSessionStatus(final String sessionId,
+      final SessionStatus sessionStatus) {
+    return supplyAsync(() -> getClient().updateSessionStatus(sessionId, sessionStatus));
+  }
+
+  public CompletableFuture<String> getSessionLogs(final String sessionId) {
+    return supplyAsync(() -> getClient().getSessionLogs(sessionId));
+  }
+
+  public CompletableFuture<String> getSessionLogs(final Session session) {
+    return supplyAsync(() -> getClient().getSessionLogs(session));
+  }
+
+  public CompletableFuture<String> getSessionVideo(final String sessionId) {
+    return supplyAsync(() -> getClient().getSessionVideo(sessionId));
+  }
+
+  public CompletableFuture<Boolean> deleteSession(final String sessionId) {
+    return supplyAsync(() -> getClient().deleteSession(sessionId));
+  }
+
+  public CompletableFuture<String> recycleKey() {
+    return supplyAsync(() -> getClient().recycleKey());
+  }
+}
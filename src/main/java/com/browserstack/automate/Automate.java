@@ -6,8 +6,11 @@ import com.browserstack.automate.exception.SessionNotFound;
 import com.browserstack.automate.model.AccountUsage;
 import com.browserstack.automate.model.Project;
 import com.browserstack.automate.model.Session;
+import com.browserstack.client.BatchResult;
+import com.browserstack.client.catalog.BrowserCatalog;
 import com.browserstack.client.model.Browser;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -19,6 +22,14 @@ public interface Automate {
 
     List<Browser> getBrowsers(boolean cache) throws AutomateException;
 
+    /**
+     * Indexed catalogue of the browsers offered for Automate. Implementations that do not cache
+     * it build a new catalogue from {@link #getBrowsers()} on every call.
+     */
+    default BrowserCatalog getBrowserCatalog() throws AutomateException {
+        return BrowserCatalog.of(getBrowsers());
+    }
+
     List<Project> getProjects() throws AutomateException;
 
     Project getProject(int projectId) throws ProjectNotFound, AutomateException;
@@ -34,6 +45,41 @@ public interface Automate {
     Session updateSessionStatus(String sessionId,
                                 SessionStatus sessionStatus) throws SessionNotFound, AutomateException;
 
+    /**
+     * Updates many sessions, continuing past failed updates. Implementations that cannot send
+     * updates in parallel apply them one at a time.
+     */
+    default BatchResult<Session> updateSessionStatuses(Map<String, Map<String, Object>> updates,
+                                                       int maxConcurrency) {
+        if (updates == null) {
+            throw new IllegalArgumentException("Invalid updates");
+        }
+
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Invalid maxConcurrency");
+        }
+
+        return BatchResult.runSequentially(updates.keySet(),
+                sessionId -> updateSessionStatus(sessionId, updates.get(sessionId)));
+    }
+
+    default BatchResult<Session> updateSessionStatuses(Map<String, SessionStatus> sessionStatuses, String reason) {
+        if (sessionStatuses == null) {
+            throw new IllegalArgumentException("Invalid sessionStatuses");
+        }
+
+        final Map<String, Map<String, Object>> updates = new LinkedHashMap<>();
+        for (Map.Entry<String, SessionStatus> entry : sessionStatuses.entrySet()) {
+            updates.put(entry.getKey(), SessionStatuses.statusData(entry.getValue(), reason));
+        }
+
+        return updateSessionStatuses(updates, 1);
+    }
+
+    default BatchResult<Session> updateSessionStatuses(Map<String, SessionStatus> sessionStatuses) {
+        return updateSessionStatuses(sessionStatuses, null);
+    }
+
     String getSessionLogs(String sessionId) throws SessionNotFound, AutomateException;
 
     String getSessionLogs(Session session) throws AutomateException;
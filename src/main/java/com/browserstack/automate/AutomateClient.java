@@ -5,19 +5,33 @@ import com.browserstack.automate.exception.BuildNotFound;
 import com.browserstack.automate.exception.ProjectNotFound;
 import com.browserstack.automate.exception.SessionNotFound;
 import com.browserstack.automate.model.*;
+import com.browserstack.client.BatchResult;
 import com.browserstack.client.BrowserStackClient;
 import com.browserstack.client.BrowserStackRequest;
+import com.browserstack.client.HttpTransportConfig;
+import com.browserstack.client.PurgePolicy;
+import com.browserstack.client.catalog.BrowserCatalog;
 import com.browserstack.client.exception.BrowserStackException;
 import com.browserstack.client.exception.BrowserStackObjectNotFound;
 import com.browserstack.client.model.Browser;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Access and manage information about your BrowserStack Automate tests.
@@ -26,6 +40,9 @@ public final class AutomateClient extends BrowserStackClient implements Automate
 
   private static final String BASE_URL = "https://api.browserstack.com/automate";
   private static final String CACHE_KEY_BROWSERS = "browsers";
+  private static final int DEFAULT_BATCH_CONCURRENCY = 10;
+
+  private volatile SessionStatusQueue sessionStatusQueue;
 
   /**
    * Construct an instance of {@link AutomateClient} with your BrowserStack account credentials.
@@ -38,6 +55,19 @@ public final class AutomateClient extends BrowserStackClient implements Automate
     super(System.getProperty("browserstack.automate.api", BASE_URL), username, accessKey);
   }
 
+  /**
+   * Construct an instance of {@link AutomateClient} with your BrowserStack account credentials
+   * and a dedicated connection pool.
+   *
+   * @param username Username for your BrowserStack Automate account.
+   * @param accessKey Access Key for your BrowserStack Automate account.
+   * @param transportConfig Connection pool and timeout settings for this client.
+   */
+  public AutomateClient(String username, String accessKey, HttpTransportConfig transportConfig) {
+    super(System.getProperty("browserstack.automate.api", BASE_URL), username, accessKey,
+        transportConfig);
+  }
+
   /**
    * Returns details for the BrowserStack Automate plan.
    *
@@ -73,20 +103,27 @@ public final class AutomateClient extends BrowserStackClient implements Automate
    * @throws AutomateException exception object for Automate sessions.
    */
   @Override
-  @SuppressWarnings("unchecked")
   public List<Browser> getBrowsers(final boolean cache) throws AutomateException {
+    return Arrays.asList(fetchBrowsers(cache));
+  }
+
+  /**
+   * Browsers are cached as an array rather than a list, so that the disk store can persist them
+   * and read them back as the same type.
+   */
+  private Browser[] fetchBrowsers(final boolean cache) throws AutomateException {
     try {
-      if (cache && cacheMap.containsKey(CACHE_KEY_BROWSERS)) {
-        List<Browser> browsers = (List<Browser>) cacheMap.get(CACHE_KEY_BROWSERS);
-        if (browsers != null && browsers.size() > 0) {
+      if (cache) {
+        Browser[] browsers = (Browser[]) cacheMap.get(CACHE_KEY_BROWSERS);
+        if (browsers != null && browsers.length > 0) {
           return browsers;
         }
       }
 
-      List<Browser> browsers =
-          Arrays.asList(newRequest(Method.GET, "/browsers.json").asObject(Browser[].class));
+      Browser[] browsers = newRequest(Method.GET, "/browsers.json").asObject(Browser[].class);
       if (cache) {
         cacheMap.put(CACHE_KEY_BROWSERS, browsers);
+        refreshAhead(CACHE_KEY_BROWSERS, () -> fetchBrowsers(false));
       }
 
       return browsers;
@@ -95,6 +132,21 @@ public final class AutomateClient extends BrowserStackClient implements Automate
     }
   }
 
+  /**
+   * Returns an indexed catalogue of the Desktop and Mobile browsers offered for Automate, for
+   * repeated capability lookups. It is built from the cached browser list and rebuilt only when
+   * that list is refreshed.
+   *
+   * @return the {@link BrowserCatalog}
+   * @throws AutomateException exception object for Automate sessions.
+   */
+  @Override
+  public BrowserCatalog getBrowserCatalog() throws AutomateException {
+    final Browser[] browsers = fetchBrowsers(true);
+    return catalogFor(CACHE_KEY_BROWSERS, browsers,
+        () -> BrowserCatalog.of(Arrays.asList(browsers)));
+  }
+
   /**
    * Gets a list of projects
    *
@@ -284,6 +336,23 @@ public final class AutomateClient extends BrowserStackClient implements Automate
     }
   }
 
+  /**
+   * Deletes every build matching a retention policy.
+   *
+   * @param policy Selects the builds to delete.
+   * @return the deleted builds, or the matching builds on a dry run, and the errors of failed
+   *         deletions, by build id.
+   * @throws AutomateException exception object for Automate sessions.
+   */
+  @Override
+  public BatchResult<Build> purgeBuilds(final PurgePolicy policy) throws AutomateException {
+    try {
+      return super.purgeBuilds(policy);
+    } catch (BrowserStackException e) {
+      throw new AutomateException(e);
+    }
+  }
+
   /**
    * Retrieves the list of sessions existing under a specific build.
    *
@@ -304,6 +373,48 @@ public final class AutomateClient extends BrowserStackClient implements Automate
     }
   }
 
+  /**
+   * Retrieves the list of sessions existing under a specific build, fetching several pages
+   * concurrently.
+   *
+   * @param buildId ID that uniquely identifies a build.
+   * @param status Include only builds that match the specified build status.
+   * @param limit Limit results to the specified count.
+   * @param parallelism Maximum number of pages requested at the same time.
+   * @return List of {@link Session} objects containing test session information.
+   * @throws BuildNotFound could not find build with given id.
+   * @throws AutomateException exception object for Automate sessions.
+   */
+  @Override
+  public List<Session> getSessions(final String buildId, final BuildStatus status,
+      final int limit, final int parallelism) throws BuildNotFound, AutomateException {
+    try {
+      return super.getSessions(buildId, status, limit, parallelism);
+    } catch (BrowserStackException e) {
+      throw new AutomateException(e);
+    }
+  }
+
+  /**
+   * Hands every session of a build to the consumer as it is decoded from the response.
+   *
+   * @param buildId ID that uniquely identifies a build.
+   * @param status Include only sessions that match the specified status.
+   * @param consumer Receives each {@link Session}, in order.
+   * @return number of sessions handed to the consumer.
+   * @throws BuildNotFound could not find build with given id.
+   * @throws AutomateException exception object for Automate sessions.
+   */
+  @Override
+  public int forEachSession(final String buildId, final BuildStatus status,
+      final Consumer<? super Session> consumer) throws BuildNotFound, AutomateException {
+    try {
+      return super.forEachSession(buildId, status, consumer);
+    } catch (BrowserStackException e) {
+      throw new AutomateException(e);
+    }
+  }
+
   /**
    * Retrieves the list of sessions existing under a specific build.
    *
@@ -399,16 +510,7 @@ public final class AutomateClient extends BrowserStackClient implements Automate
   public Session updateSessionStatus(final String sessionId,
       final SessionStatus sessionStatus, final String reason)
       throws SessionNotFound, AutomateException {
-    final Map<String, Object> data = new HashMap<>();
-    if (sessionStatus != null) {
-      data.put("status", sessionStatus.name().toLowerCase());
-    }
-
-    if (reason != null && reason.trim().length() > 0) {
-      data.put("reason", reason);
-    }
-
-    return updateSessionStatus(sessionId, data);
+    return updateSessionStatus(sessionId, SessionStatuses.statusData(sessionStatus, reason));
   }
 
   /**
@@ -426,6 +528,95 @@ public final class AutomateClient extends BrowserStackClient implements Automate
     return updateSessionStatus(sessionId, sessionStatus, null);
   }
 
+  /**
+   * Updates many sessions at once, sending up to {@code maxConcurrency} requests in parallel over
+   * the pooled connections. A failed update does not stop the others.
+   *
+   * @param updates Key-Value pairs containing session update information, by session id.
+   * @param maxConcurrency Maximum number of updates in flight at the same time.
+   * @return the updated sessions and the errors of failed updates, by session id.
+   */
+  @Override
+  public BatchResult<Session> updateSessionStatuses(final Map<String, Map<String, Object>> updates,
+      final int maxConcurrency) {
+    if (updates == null) {
+      throw new IllegalArgumentException("Invalid updates");
+    }
+
+    return runBatch(updates.keySet(), maxConcurrency,
+        sessionId -> updateSessionStatus(sessionId, updates.get(sessionId)));
+  }
+
+  /**
+   * Marks many sessions at once, sending up to 10 requests in parallel. A failed update does not
+   * stop the others.
+   *
+   * @param sessionStatuses State with which each session should be marked, by session id.
+   * @param reason Message containing reason for marking the sessions, or null.
+   * @return the updated sessions and the errors of failed updates, by session id.
+   */
+  @Override
+  public BatchResult<Session> updateSessionStatuses(final Map<String, SessionStatus> sessionStatuses,
+      final String reason) {
+    if (sessionStatuses == null) {
+      throw new IllegalArgumentException("Invalid sessionStatuses");
+    }
+
+    final Map<String, Map<String, Object>> updates = new LinkedHashMap<>();
+    for (Map.Entry<String, SessionStatus> entry : sessionStatuses.entrySet()) {
+      updates.put(entry.getKey(), SessionStatuses.statusData(entry.getValue(), reason));
+    }
+
+    return updateSessionStatuses(updates, DEFAULT_BATCH_CONCURRENCY);
+  }
+
+  /**
+   * Returns the write-behind queue of this client, starting it on first use. Updates queued
+   * there are sent in the background; {@link #close()} sends what is left.
+   *
+   * @return the session status queue.
+   */
+  public SessionStatusQueue getSessionStatusQueue() {
+    SessionStatusQueue queue = sessionStatusQueue;
+    if (queue == null) {
+      synchronized (this) {
+        queue = sessionStatusQueue;
+        if (queue == null) {
+          queue = new SessionStatusQueue(this);
+          sessionStatusQueue = queue;
+        }
+      }
+    }
+
+    return queue;
+  }
+
+  /**
+   * Queues a status update without waiting for it to be sent.
+   *
+   * @param sessionId ID that uniquely identifies a session.
+   * @param sessionStatus State with which the session should be marked (Error, Done).
+   * @param reason Message containing reason for marking session with new status, or null.
+   * @see SessionStatusQueue
+   */
+  public void enqueueSessionStatus(final String sessionId, final SessionStatus sessionStatus,
+      final String reason) {
+    getSessionStatusQueue().enqueue(sessionId, sessionStatus, reason);
+  }
+
+  /**
+   * Sends the session status updates still queued, then releases the resources of this client.
+   */
+  @Override
+  public void close() {
+    final SessionStatusQueue queue = sessionStatusQueue;
+    if (queue != null) {
+      queue.close();
+    }
+
+    super.close();
+  }
+
   /**
    * Fetches the text logs for a session.
    *
@@ -449,23 +640,169 @@ public final class AutomateClient extends BrowserStackClient implements Automate
    */
   @Override
   public String getSessionLogs(final Session session) throws AutomateException {
-    if (session == null) {
-      throw new AutomateException("Invalid session", 400);
+    try {
+      return newSessionLogsRequest(session).asString();
+    } catch (BrowserStackException e) {
+      throw new AutomateException(e);
     }
+  }
 
-    if (session.getLogUrl() == null) {
-      throw new AutomateException("Session logs not found", 404);
+  /**
+   * Streams the text logs for a session to {@code out} as they are downloaded, without holding
+   * them in memory.
+   *
+   * @param session {@link Session} for which to retrieve logs.
+   * @param out Destination of the logs. It is not closed.
+   * @return number of bytes written.
+   * @throws AutomateException exception object for Automate sessions.
+   */
+  public long getSessionLogs(final Session session, final OutputStream out)
+      throws AutomateException {
+    if (out == null) {
+      throw new IllegalArgumentException("Invalid output stream");
     }
 
     try {
-      BrowserStackRequest request = newRequest(Method.GET, session.getLogUrl(), false);
-      request.getHttpRequest().getHeaders().setAccept("*/*");
-      return request.asString();
+      return newSessionLogsRequest(session).writeTo(out);
     } catch (BrowserStackException e) {
       throw new AutomateException(e);
     }
   }
 
+  /**
+   * Downloads the text logs for a session to a file. The logs are written to a temporary file
+   * next to the target, which is moved into place once complete, so the target never holds
+   * partial logs.
+   *
+   * @param session {@link Session} for which to retrieve logs.
+   * @param target File to write the logs to. It is replaced if it exists.
+   * @return the target file.
+   * @throws AutomateException exception object for Automate sessions.
+   */
+  public Path downloadSessionLogs(final Session session, final Path target)
+      throws AutomateException {
+    if (target == null) {
+      throw new IllegalArgumentException("Invalid target");
+    }
+
+    try {
+      return writeSessionLogs(session, target, false);
+    } catch (BrowserStackException e) {
+      throw new AutomateException(e);
+    }
+  }
+
+  /**
+   * Downloads the text logs of every session of a build into a directory, one file per session
+   * named after the session id.
+   *
+   * @param buildId ID that uniquely identifies a build.
+   * @param directory Directory to write the logs to. Created if it does not exist.
+   * @return the written files and the errors of failed downloads, by session id.
+   * @throws BuildNotFound could not find build with given id.
+   * @throws AutomateException exception object for Automate sessions.
+   * @see #archiveBuildLogs(String, Path, boolean, int)
+   */
+  public BatchResult<Path> archiveBuildLogs(final String buildId, final Path directory)
+      throws BuildNotFound, AutomateException {
+    return archiveBuildLogs(buildId, directory, false, DEFAULT_BATCH_CONCURRENCY);
+  }
+
+  /**
+   * Downloads the text logs of every session of a build into a directory, one file per session
+   * named after the session id, with up to {@code maxConcurrency} downloads in flight.
+   *
+   * <p>
+   * Each log is streamed to a temporary file which is renamed once complete. Sessions whose file
+   * already exists are skipped, so an archive interrupted by failures can be completed by calling
+   * this method again.
+   * </p>
+   *
+   * @param buildId ID that uniquely identifies a build.
+   * @param directory Directory to write the logs to. Created if it does not exist.
+   * @param gzip Whether to gzip each file, named {@code <sessionId>.log.gz} instead of
+   *        {@code <sessionId>.log}.
+   * @param maxConcurrency Maximum number of downloads in flight at the same time.
+   * @return the written or already present files and the errors of failed downloads, by
+   *         session id.
+   * @throws BuildNotFound could not find build with given id.
+   * @throws AutomateException exception object for Automate sessions.
+   */
+  public BatchResult<Path> archiveBuildLogs(final String buildId, final Path directory,
+      final boolean gzip, final int maxConcurrency) throws BuildNotFound, AutomateException {
+    if (directory == null) {
+      throw new IllegalArgumentException("Invalid directory");
+    }
+
+    final Map<String, Session> sessions = new LinkedHashMap<>();
+    forEachSession(buildId, null, session -> {
+      if (session != null && session.getId() != null) {
+        sessions.put(session.getId(), session);
+      }
+    });
+
+    final String suffix = gzip ? ".log.gz" : ".log";
+    return runBatch(sessions.keySet(), maxConcurrency, sessionId -> {
+      final Path target = directory.resolve(sessionId + suffix);
+      if (Files.exists(target)) {
+        return target;
+      }
+
+      return writeSessionLogs(sessions.get(sessionId), target, gzip);
+    });
+  }
+
+  private Path writeSessionLogs(final Session session, final Path target, final boolean gzip)
+      throws BrowserStackException {
+    final BrowserStackRequest request = newSessionLogsRequest(session);
+
+    Path tempFile = null;
+    try {
+      final Path directory = target.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      tempFile = Files.createTempFile(directory, target.getFileName().toString(), ".part");
+
+      try (OutputStream out = gzip ? new GZIPOutputStream(Files.newOutputStream(tempFile))
+          : Files.newOutputStream(tempFile)) {
+        request.writeTo(out);
+      }
+
+      try {
+        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+
+      return target;
+    } catch (IOException e) {
+      throw new BrowserStackException(e);
+    } finally {
+      if (tempFile != null) {
+        try {
+          Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+          // a leftover temporary file does not affect the result
+        }
+      }
+    }
+  }
+
+  private BrowserStackRequest newSessionLogsRequest(final Session session)
+      throws BrowserStackException {
+    if (session == null) {
+      throw new AutomateException("Invalid session", 400);
+    }
+
+    if (session.getLogUrl() == null) {
+      throw new AutomateException("Session logs not found", 404);
+    }
+
+    BrowserStackRequest request = newRequest(Method.GET, session.getLogUrl(), false);
+    request.getHttpRequest().getHeaders().setAccept("*/*");
+    return request;
+  }
+
   /**
    * Returns the link for the session video.
    *
@@ -502,6 +839,41 @@ public final class AutomateClient extends BrowserStackClient implements Automate
     }
   }
 
+  /**
+   * Deletes many sessions at once, with at most {@code maxConcurrency} deletions in flight.
+   * A failed deletion does not stop the others.
+   *
+   * @param sessionIds IDs of the sessions to delete.
+   * @param maxConcurrency Maximum number of deletions in flight at the same time.
+   * @return the outcome of each deletion, by session id.
+   */
+  public BatchResult<Boolean> deleteSessions(final Collection<String> sessionIds,
+      final int maxConcurrency) {
+    return runBatch(sessionIds, maxConcurrency, this::deleteSession);
+  }
+
+  /**
+   * Deletes many projects at once, with at most {@code maxConcurrency} deletions in flight.
+   * A failed deletion does not stop the others.
+   *
+   * @param projectIds IDs of the projects to delete.
+   * @param maxConcurrency Maximum number of deletions in flight at the same time.
+   * @return the outcome of each deletion, by project id.
+   */
+  public BatchResult<Boolean> deleteProjects(final Collection<Integer> projectIds,
+      final int maxConcurrency) {
+    if (projectIds == null) {
+      throw new IllegalArgumentException("Invalid projectIds");
+    }
+
+    final List<String> keys = new ArrayList<>(projectIds.size());
+    for (Integer projectId : projectIds) {
+      keys.add(String.valueOf(projectId));
+    }
+
+    return runBatch(keys, maxConcurrency, projectId -> deleteProject(Integer.parseInt(projectId)));
+  }
+
   /**
    * Destroys the current access key and returns a new access key.
    *
@@ -516,7 +888,7 @@ public final class AutomateClient extends BrowserStackClient implements Automate
   public String recycleKey() throws AutomateException {
     ObjectNode result;
     try {
-      result = newRequest(Method.PUT, "/recycle_key.json").body("{}").asJsonObject();
+      result = newRequest(Method.PUT, "/recycle_key.json").retryable(false).body("{}").asJsonObject();
     } catch (BrowserStackException e) {
       throw new AutomateException(e);
     }
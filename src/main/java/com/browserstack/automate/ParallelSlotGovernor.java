@@ -0,0 +1,396 @@
+package com.browserstack.automate;
+
+import com.browserstack.automate.exception.AutomateException;
+import com.browserstack.automate.model.AccountUsage;
+import com.browserstack.client.util.TaskExecutors;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out the parallel session slots of an Automate plan to test launchers, so sessions are
+ * only started when the account has room for them instead of queueing on BrowserStack's side.
+ *
+ * <p>
+ * The governor polls {@link Automate#getAccountUsage()} in the background and keeps a local count
+ * of free slots: the plan maximum, minus the leases it handed out, minus sessions running on the
+ * account that are not covered by a lease (started by other machines, for example). The count is
+ * reconciled with the server on every poll. Polls are frequent while launchers are waiting for a
+ * slot and back off while the governor is idle.
+ * </p>
+ *
+ * <p>
+ * If the usage cannot be read for a number of polls in a row, launchers waiting for a slot fail
+ * with the error of the last poll instead of waiting for polls that may never succeed. Prefer
+ * {@link #tryAcquire(long, TimeUnit)}, which also bounds the wait while polls succeed but the
+ * account stays busy.
+ * </p>
+ *
+ * <pre>
+ * ParallelSlotGovernor.Lease lease = governor.tryAcquire(10, TimeUnit.MINUTES);
+ * if (lease != null) {
+ *   try {
+ *     // start and run the session
+ *   } finally {
+ *     lease.close();
+ *   }
+ * }
+ * </pre>
+ */
+public class ParallelSlotGovernor implements AutoCloseable {
+
+  private static final long DEFAULT_MIN_POLL_INTERVAL = 2000; // 2 seconds
+  private static final long DEFAULT_MAX_POLL_INTERVAL = 30000; // 30 seconds
+  private static final long DEFAULT_SETTLE_TIME = 10000; // 10 seconds
+  private static final int DEFAULT_MAX_FAILED_POLLS = 3;
+
+  private final Automate automate;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition changed = lock.newCondition();
+
+  private final Set<Lease> leases = new HashSet<>();
+
+  private volatile long minPollInterval = DEFAULT_MIN_POLL_INTERVAL;
+
+  private volatile long maxPollInterval = DEFAULT_MAX_POLL_INTERVAL;
+
+  private volatile long settleTime = DEFAULT_SETTLE_TIME;
+
+  private volatile int maxFailedPolls = DEFAULT_MAX_FAILED_POLLS;
+
+  // guarded by lock
+  private int maxAllowed = -1;
+  private int untracked;
+  private int waiters;
+  private long pollInterval = DEFAULT_MIN_POLL_INTERVAL;
+  private int failedPolls;
+  private boolean closed;
+
+  private volatile AutomateException lastError;
+
+  /**
+   * Creates a governor and starts polling the account usage right away. Leases are granted once
+   * the first poll has completed.
+   *
+   * @param automate Client used to read the account usage.
+   */
+  public ParallelSlotGovernor(final Automate automate) {
+    if (automate == null) {
+      throw new IllegalArgumentException("Invalid automate");
+    }
+
+    this.automate = automate;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(
+        TaskExecutors.newThreadFactory("browserstack-slot-governor"));
+    this.scheduler.execute(this::poll);
+  }
+
+  /**
+   * @param minPollInterval Milliseconds between polls while launchers are waiting for a slot.
+   * @param maxPollInterval Longest interval between polls while the governor is idle.
+   * @return this governor
+   */
+  public ParallelSlotGovernor setPollInterval(final long minPollInterval, final long maxPollInterval) {
+    if (minPollInterval <= 0 || maxPollInterval < minPollInterval) {
+      throw new IllegalArgumentException("Invalid pollInterval");
+    }
+
+    this.minPollInterval = minPollInterval;
+    this.maxPollInterval = maxPollInterval;
+    return this;
+  }
+
+  /**
+   * Leases younger than this are assumed not to have started their session yet, so they are
+   * not expected in the running count reported by the server.
+   *
+   * @param settleTime Milliseconds for a session to show up as running.
+   * @return this governor
+   */
+  public ParallelSlotGovernor setSettleTime(final long settleTime) {
+    if (settleTime < 0) {
+      throw new IllegalArgumentException("Invalid settleTime");
+    }
+
+    this.settleTime = settleTime;
+    return this;
+  }
+
+  /**
+   * @param maxFailedPolls Failed polls in a row after which launchers waiting for a slot fail
+   *        with the error of the last poll.
+   * @return this governor
+   */
+  public ParallelSlotGovernor setMaxFailedPolls(final int maxFailedPolls) {
+    if (maxFailedPolls <= 0) {
+      throw new IllegalArgumentException("Invalid maxFailedPolls");
+    }
+
+    lock.lock();
+    try {
+      this.maxFailedPolls = maxFailedPolls;
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+
+    return this;
+  }
+
+  /**
+   * Waits until a slot is free and leases it. The wait is only bounded by failing polls, see
+   * {@link #tryAcquire(long, TimeUnit)} for a bounded wait.
+   *
+   * @return the lease, to be closed once the session has ended.
+   * @throws AutomateException if no slot is free and the account usage could not be read for
+   *         {@link #setMaxFailedPolls(int) maxFailedPolls} polls in a row.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public Lease acquire() throws AutomateException, InterruptedException {
+    lock.lock();
+    try {
+      waiters++;
+      try {
+        while (available() <= 0) {
+          checkPolls();
+          changed.await();
+        }
+      } finally {
+        waiters--;
+      }
+
+      return lease();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return a lease if a slot is free right now, or null.
+   */
+  public Lease tryAcquire() {
+    lock.lock();
+    try {
+      return (available() > 0) ? lease() : null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Waits up to the given time for a slot to be free and leases it. This is the recommended way
+   * to obtain a slot.
+   *
+   * @param timeout Maximum time to wait.
+   * @param unit    Unit of the timeout.
+   * @return the lease, or null if no slot was free in time.
+   * @throws AutomateException if no slot is free and the account usage could not be read for
+   *         {@link #setMaxFailedPolls(int) maxFailedPolls} polls in a row.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public Lease tryAcquire(final long timeout, final TimeUnit unit)
+      throws AutomateException, InterruptedException {
+    long remaining = unit.toNanos(timeout);
+
+    lock.lock();
+    try {
+      waiters++;
+      try {
+        while (available() <= 0) {
+          checkPolls();
+          if (remaining <= 0) {
+            return null;
+          }
+
+          remaining = changed.awaitNanos(remaining);
+        }
+      } finally {
+        waiters--;
+      }
+
+      return lease();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return number of slots that can be leased now, or 0 before the first poll.
+   */
+  public int getAvailable() {
+    lock.lock();
+    try {
+      return Math.max(0, (maxAllowed < 0) ? 0 : maxAllowed - leases.size() - untracked);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return number of leases not yet closed.
+   */
+  public int getLeased() {
+    lock.lock();
+    try {
+      return leases.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the parallel sessions allowed by the plan, or -1 before the first poll.
+   */
+  public int getMaxAllowed() {
+    lock.lock();
+    try {
+      return maxAllowed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the error of the last poll, or null if it succeeded. The governor keeps using the
+   * last known usage while polls fail.
+   */
+  public AutomateException getLastError() {
+    return lastError;
+  }
+
+  /**
+   * Stops polling. Launchers waiting for a slot are woken up with an
+   * {@link IllegalStateException}; leases already handed out stay valid.
+   */
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+
+    lock.lock();
+    try {
+      closed = true;
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // called with lock held
+  private int available() {
+    if (closed) {
+      throw new IllegalStateException("Parallel slot governor is closed");
+    }
+
+    return (maxAllowed < 0) ? 0 : maxAllowed - leases.size() - untracked;
+  }
+
+  // called with lock held
+  private void checkPolls() throws AutomateException {
+    final AutomateException error = lastError;
+    if (failedPolls >= maxFailedPolls && error != null) {
+      throw error;
+    }
+  }
+
+  // called with lock held
+  private Lease lease() {
+    final Lease lease = new Lease(System.currentTimeMillis());
+    leases.add(lease);
+    return lease;
+  }
+
+  private void release(final Lease lease) {
+    lock.lock();
+    try {
+      if (leases.remove(lease)) {
+        changed.signalAll();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void poll() {
+    AccountUsage usage = null;
+    try {
+      usage = automate.getAccountUsage();
+      lastError = null;
+    } catch (AutomateException e) {
+      lastError = e;
+    } catch (RuntimeException e) {
+      lastError = new AutomateException(e.getMessage(), 0);
+    }
+
+    final long delay;
+    lock.lock();
+    try {
+      if (usage != null) {
+        failedPolls = 0;
+        reconcile(usage, System.currentTimeMillis());
+      } else {
+        failedPolls++;
+      }
+
+      // wake waiters up to take a freed slot, or to fail once polls keep failing
+      changed.signalAll();
+
+      // poll often while launchers are queueing for slots, back off while idle or failing
+      if (usage != null && (waiters > 0 || available() <= 0)) {
+        pollInterval = minPollInterval;
+      } else {
+        pollInterval = Math.min(maxPollInterval, Math.max(minPollInterval, pollInterval * 2));
+      }
+
+      delay = pollInterval;
+    } catch (IllegalStateException e) {
+      return;
+    } finally {
+      lock.unlock();
+    }
+
+    try {
+      scheduler.schedule(this::poll, delay, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      // closed
+    }
+  }
+
+  // called with lock held
+  private void reconcile(final AccountUsage usage, final long now) {
+    int settled = 0;
+    for (Lease lease : leases) {
+      if (now - lease.acquired >= settleTime) {
+        settled++;
+      }
+    }
+
+    maxAllowed = Math.max(0, usage.getParallelSessionsMaxAllowed());
+    untracked = Math.max(0, usage.getParallelSessionsRunning() - settled);
+  }
+
+  /**
+   * A parallel session slot. Closing it returns the slot; closing it again has no effect.
+   */
+  public final class Lease implements AutoCloseable {
+    private final long acquired;
+
+    private Lease(final long acquired) {
+      this.acquired = acquired;
+    }
+
+    @Override
+    public void close() {
+      release(this);
+    }
+  }
+}
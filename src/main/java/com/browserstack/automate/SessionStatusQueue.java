@@ -0,0 +1,197 @@
+package com.browserstack.automate;
+
+import com.browserstack.automate.Automate.SessionStatus;
+import com.browserstack.automate.model.Session;
+import com.browserstack.client.BatchResult;
+import com.browserstack.client.exception.BrowserStackException;
+import com.browserstack.client.util.TaskExecutors;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind queue for session status updates.
+ *
+ * <p>
+ * {@link #enqueue(String, SessionStatus, String)} returns immediately, so test teardown does not
+ * wait on the network. Updates are sent in the background in bulk, with bounded parallelism.
+ * Updates to a session that is still queued replace the queued one, so only the last status is
+ * sent. Call {@link #flush()} or {@link #close()} before the JVM exits to send what is left.
+ * </p>
+ */
+public class SessionStatusQueue implements AutoCloseable {
+
+  private static final long DEFAULT_FLUSH_INTERVAL = 500; // 500 milliseconds
+  private static final int DEFAULT_MAX_CONCURRENCY = 10;
+
+  private final AutomateClient client;
+
+  private final Map<String, Map<String, Object>> pending = new ConcurrentHashMap<>();
+
+  private final Map<String, BrowserStackException> failures = new ConcurrentHashMap<>();
+
+  private final ReentrantLock drainLock = new ReentrantLock();
+
+  // enqueue holds the read lock from the closed check until its update is queued, so close()
+  // only drains once no update can still be added behind it
+  private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+  private final ScheduledExecutorService scheduler;
+
+  private volatile int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+  private volatile boolean closed;
+
+  SessionStatusQueue(final AutomateClient client) {
+    this(client, DEFAULT_FLUSH_INTERVAL);
+  }
+
+  SessionStatusQueue(final AutomateClient client, final long flushInterval) {
+    if (flushInterval <= 0) {
+      throw new IllegalArgumentException("Invalid flushInterval");
+    }
+
+    this.client = client;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(
+        TaskExecutors.newThreadFactory("browserstack-status-queue"));
+    this.scheduler.scheduleWithFixedDelay(this::drainQuietly, flushInterval, flushInterval,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @param maxConcurrency Maximum number of updates sent at the same time.
+   * @return this queue
+   */
+  public SessionStatusQueue setMaxConcurrency(final int maxConcurrency) {
+    if (maxConcurrency <= 0) {
+      throw new IllegalArgumentException("Invalid maxConcurrency");
+    }
+
+    this.maxConcurrency = maxConcurrency;
+    return this;
+  }
+
+  /**
+   * Queues a status update, replacing any update for the same session not yet sent.
+   *
+   * @param sessionId ID that uniquely identifies a session.
+   * @param sessionStatus State with which the session should be marked (Error, Done).
+   * @param reason Message containing reason for marking session with new status, or null.
+   */
+  public void enqueue(final String sessionId, final SessionStatus sessionStatus, final String reason) {
+    enqueue(sessionId, SessionStatuses.statusData(sessionStatus, reason));
+  }
+
+  /**
+   * Queues a session update, replacing any update for the same session not yet sent.
+   *
+   * @param sessionId ID that uniquely identifies a session.
+   * @param data Key-Value pairs containing session update information.
+   */
+  public void enqueue(final String sessionId, final Map<String, Object> data) {
+    if (sessionId == null || sessionId.trim().length() == 0) {
+      throw new IllegalArgumentException("Invalid sessionId");
+    }
+
+    if (data == null) {
+      throw new IllegalArgumentException("Invalid data");
+    }
+
+    closeLock.readLock().lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("Session status queue is closed");
+      }
+
+      pending.put(sessionId, new HashMap<>(data));
+    } finally {
+      closeLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return number of sessions with an update not yet sent.
+   */
+  public int size() {
+    return pending.size();
+  }
+
+  /**
+   * Sends every queued update now and waits until they are done.
+   *
+   * @return the updated sessions and the errors of failed updates, by session id.
+   */
+  public BatchResult<Session> flush() {
+    return drain();
+  }
+
+  /**
+   * @return errors of updates which failed in the background, by session id. A later successful
+   * update of the same session clears its entry.
+   */
+  public Map<String, BrowserStackException> getFailures() {
+    return Collections.unmodifiableMap(new HashMap<>(failures));
+  }
+
+  /**
+   * Stops the background sender and sends every update still queued. Further updates are
+   * rejected.
+   */
+  @Override
+  public void close() {
+    closeLock.writeLock().lock();
+    try {
+      closed = true;
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+
+    scheduler.shutdown();
+    drain();
+  }
+
+  private void drainQuietly() {
+    try {
+      drain();
+    } catch (RuntimeException e) {
+      // keep the background sender running; failed updates are reported through getFailures()
+    }
+  }
+
+  private BatchResult<Session> drain() {
+    drainLock.lock();
+    try {
+      // updates queued while a batch is in flight are sent with the next batch, so the
+      // last update of a session is always the one applied last
+      final Map<String, Map<String, Object>> batch = new LinkedHashMap<>();
+      for (String sessionId : pending.keySet()) {
+        final Map<String, Object> data = pending.remove(sessionId);
+        if (data != null) {
+          batch.put(sessionId, data);
+        }
+      }
+
+      if (batch.isEmpty()) {
+        return new BatchResult<>();
+      }
+
+      final BatchResult<Session> result = client.updateSessionStatuses(batch, maxConcurrency);
+      for (String sessionId : result.getSucceeded().keySet()) {
+        failures.remove(sessionId);
+      }
+
+      failures.putAll(result.getFailed());
+      return result;
+    } finally {
+      drainLock.unlock();
+    }
+  }
+}
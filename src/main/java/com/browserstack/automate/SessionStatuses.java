@@ -0,0 +1,29 @@
+package com.browserstack.automate;
+
+import com.browserstack.automate.Automate.SessionStatus;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the request body of a session status update, shared by {@link Automate} and its
+ * implementations.
+ */
+final class SessionStatuses {
+
+  private SessionStatuses() {
+  }
+
+  static Map<String, Object> statusData(final SessionStatus sessionStatus, final String reason) {
+    final Map<String, Object> data = new HashMap<>();
+    if (sessionStatus != null) {
+      data.put("status", sessionStatus.name().toLowerCase());
+    }
+
+    if (reason != null && reason.trim().length() > 0) {
+      data.put("reason", reason);
+    }
+
+    return data;
+  }
+}
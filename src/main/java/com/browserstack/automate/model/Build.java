@@ -30,6 +30,9 @@ public class Build extends BrowserStackObject {
     @JsonProperty("hashed_id")
     private String id;
 
+    @JsonProperty("created_at")
+    private String createdAt;
+
     @JsonProperty("sessions")
     private List<Session> sessions;
 
@@ -126,6 +129,24 @@ public class Build extends BrowserStackObject {
         this.name = name;
     }
 
+    /**
+     * Build creation date
+     *
+     * @return The createdAt, or null if the API did not return it
+     */
+    @JsonProperty("created_at")
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @param createdAt The created_at
+     */
+    @JsonProperty("created_at")
+    private void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
     /**
      *
      * @return The sessions
@@ -184,6 +205,10 @@ public class Build extends BrowserStackObject {
                     this.status = properties.get("status");
                 }
 
+                if (properties.containsKey("created_at")) {
+                    this.createdAt = properties.get("created_at");
+                }
+
                 if (properties.containsKey("duration")) {
                     this.duration = Integer.parseInt(properties.get("duration"));
                 }
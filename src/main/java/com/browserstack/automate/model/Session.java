@@ -98,6 +98,17 @@ public class Session extends BrowserStackObject {
         return updateStatus(sessionStatus, null);
     }
 
+    /**
+     * Queues a status update for this session without waiting for it to be sent.
+     *
+     * @param sessionStatus State with which the session should be marked (Error, Done).
+     * @param reason        Message containing reason for marking session with new status, or null.
+     * @see AutomateClient#getSessionStatusQueue()
+     */
+    public final void enqueueStatus(final SessionStatus sessionStatus, final String reason) {
+        ((AutomateClient) getClient()).enqueueSessionStatus(getId(), sessionStatus, reason);
+    }
+
     public final String getLogs() throws AutomateException {
         if (logUrl == null) {
             throw new AutomateException("Session logs not found", 404);
@@ -0,0 +1,156 @@
+package com.browserstack.client;
+
+import com.browserstack.automate.Automate.BuildStatus;
+import com.browserstack.automate.model.Build;
+import com.browserstack.automate.model.Session;
+import com.browserstack.client.util.TaskExecutors;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Non-blocking counterpart of {@link BrowserStackClientInterface}.
+ *
+ * <p>
+ * Every call is dispatched to a bounded executor and returns a {@link CompletableFuture} which
+ * completes with the result, or exceptionally with the same exception the blocking call would
+ * have thrown.
+ * </p>
+ *
+ * @param <C> type of the wrapped blocking client.
+ */
+public abstract class AsyncBrowserStackClient<C extends BrowserStackClient> implements AutoCloseable {
+
+    protected static final int DEFAULT_MAX_THREADS = 16;
+
+    private final C client;
+
+    private final Executor executor;
+
+    private final boolean ownsExecutor;
+
+    protected AsyncBrowserStackClient(final C client, final int maxThreads) {
+        this(client, TaskExecutors.newBoundedExecutor(maxThreads, "browserstack-async"), true);
+    }
+
+    protected AsyncBrowserStackClient(final C client, final Executor executor) {
+        this(client, executor, false);
+    }
+
+    private AsyncBrowserStackClient(final C client, final Executor executor, final boolean ownsExecutor) {
+        if (client == null) {
+            throw new IllegalArgumentException("Invalid client");
+        }
+
+        if (executor == null) {
+            throw new IllegalArgumentException("Invalid executor");
+        }
+
+        this.client = client;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * @return the blocking client used to perform the calls.
+     */
+    public C getClient() {
+        return client;
+    }
+
+    protected <T> CompletableFuture<T> supplyAsync(final Callable<T> call) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+
+                try {
+                    future.complete(call.call());
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    public CompletableFuture<Session> getSession(final String sessionId) {
+        return supplyAsync(() -> client.getSession(sessionId));
+    }
+
+    public CompletableFuture<List<Build>> getBuilds(final BuildStatus status, final int limit,
+                                                    final String buildName) {
+        return supplyAsync(() -> client.getBuilds(status, limit, buildName));
+    }
+
+    public CompletableFuture<List<Build>> getBuilds(final BuildStatus status, final int limit) {
+        return supplyAsync(() -> client.getBuilds(status, limit));
+    }
+
+    public CompletableFuture<List<Build>> getBuilds(final int limit) {
+        return supplyAsync(() -> client.getBuilds(limit));
+    }
+
+    public CompletableFuture<List<Build>> getBuilds(final BuildStatus status) {
+        return supplyAsync(() -> client.getBuilds(status));
+    }
+
+    public CompletableFuture<List<Build>> getBuilds() {
+        return supplyAsync(client::getBuilds);
+    }
+
+    public CompletableFuture<Build> getBuild(final String buildId) {
+        return supplyAsync(() -> client.getBuild(buildId));
+    }
+
+    public CompletableFuture<Build> getBuildByName(final String buildName) {
+        return supplyAsync(() -> client.getBuildByName(buildName));
+    }
+
+    public CompletableFuture<Boolean> deleteBuild(final String buildId) {
+        return supplyAsync(() -> client.deleteBuild(buildId));
+    }
+
+    public CompletableFuture<List<Session>> getSessions(final String buildId, final BuildStatus status,
+                                                        final int limit) {
+        return supplyAsync(() -> client.getSessions(buildId, status, limit));
+    }
+
+    public CompletableFuture<List<Session>> getSessions(final String buildId, final BuildStatus status,
+                                                        final int limit, final int parallelism) {
+        return supplyAsync(() -> client.getSessions(buildId, status, limit, parallelism));
+    }
+
+    public CompletableFuture<List<Session>> getSessions(final String buildId) {
+        return supplyAsync(() -> client.getSessions(buildId));
+    }
+
+    public CompletableFuture<List<Session>> getSessions(final String buildId, final int limit) {
+        return supplyAsync(() -> client.getSessions(buildId, limit));
+    }
+
+    public CompletableFuture<List<Session>> getSessions(final String buildId, final BuildStatus status) {
+        return supplyAsync(() -> client.getSessions(buildId, status));
+    }
+
+    /**
+     * Stops the executor if it was created by this instance. Calls already submitted still run.
+     * The wrapped client is left open.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+}
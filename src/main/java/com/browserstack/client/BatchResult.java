@@ -0,0 +1,94 @@
+package com.browserstack.client;
+
+import com.browserstack.client.exception.BrowserStackException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of an operation applied to many items at once, such as updating the status of every
+ * session of a run. A failing item does not stop the others; it is reported in
+ * {@link #getFailed()} with the exception it raised.
+ *
+ * @param <T> type of the value produced for each successful item.
+ */
+public class BatchResult<T> {
+
+    private final Map<String, T> succeeded = new LinkedHashMap<>();
+
+    private final Map<String, BrowserStackException> failed = new LinkedHashMap<>();
+
+    /**
+     * Applies a task to each key in turn, for callers without an executor of their own.
+     *
+     * @param keys Keys identifying the items, such as session ids.
+     * @param task Operation applied to each key.
+     * @param <T>  Type of the value produced for each key.
+     * @return the values and errors, by key.
+     */
+    public static <T> BatchResult<T> runSequentially(final Collection<String> keys,
+                                                     final Task<? extends T> task) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Invalid keys");
+        }
+
+        final BatchResult<T> result = new BatchResult<>();
+        for (String key : keys) {
+            try {
+                result.addSuccess(key, task.run(key));
+            } catch (BrowserStackException e) {
+                result.addFailure(key, e);
+            } catch (RuntimeException e) {
+                result.addFailure(key, new BrowserStackException(e));
+            }
+        }
+
+        return result;
+    }
+
+    synchronized void addSuccess(final String key, final T value) {
+        succeeded.put(key, value);
+    }
+
+    synchronized void addFailure(final String key, final BrowserStackException e) {
+        failed.put(key, e);
+    }
+
+    /**
+     * @return values of the items that succeeded, by item key, in completion order.
+     */
+    public synchronized Map<String, T> getSucceeded() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(succeeded));
+    }
+
+    /**
+     * @return errors of the items that failed, by item key, in completion order.
+     */
+    public synchronized Map<String, BrowserStackException> getFailed() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(failed));
+    }
+
+    public synchronized boolean isSuccessful() {
+        return failed.isEmpty();
+    }
+
+    public synchronized int size() {
+        return succeeded.size() + failed.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "BatchResult{succeeded=" + succeeded.size() + ", failed=" + failed.size() + "}";
+    }
+
+    /**
+     * Operation applied to one item of a batch.
+     *
+     * @param <T> type of the value produced for the item.
+     */
+    public interface Task<T> {
+        T run(String key) throws BrowserStackException;
+    }
+}
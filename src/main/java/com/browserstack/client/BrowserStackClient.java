@@ -7,11 +7,17 @@ import com.browserstack.automate.model.Build;
 import com.browserstack.automate.model.BuildNode;
 import com.browserstack.automate.model.Session;
 import com.browserstack.automate.model.SessionNode;
+import com.browserstack.client.catalog.BrowserCatalog;
+import com.browserstack.client.catalog.CatalogDiff;
+import com.browserstack.client.catalog.CatalogListener;
 import com.browserstack.client.exception.BrowserStackException;
 import com.browserstack.client.exception.BrowserStackObjectNotFound;
+import com.browserstack.client.model.Browser;
 import com.browserstack.client.model.BrowserListing;
 import com.browserstack.client.util.BrowserStackCache;
+import com.browserstack.client.util.BrowserStackDiskStore;
 import com.browserstack.client.util.Constants;
+import com.browserstack.client.util.TaskExecutors;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -20,32 +26,45 @@ import com.google.api.client.http.HttpHeaders;
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpRequestFactory;
 import com.google.api.client.http.HttpResponse;
-import com.google.api.client.http.HttpTransport;
-import com.google.api.client.http.apache.v2.ApacheHttpTransport;
 import com.google.api.client.util.ObjectParser;
 import org.apache.commons.codec.binary.Base64;
-import org.apache.http.HttpHost;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.client.HttpClient;
-import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.HttpClientBuilder;
 
 import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
-public abstract class BrowserStackClient implements BrowserStackClientInterface {
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public abstract class BrowserStackClient implements BrowserStackClientInterface, Closeable {
     private static final String BASE_URL = "https://www.browserstack.com";
     private static final String CACHE_KEY_PREFIX_BROWSERS = "browsers";
-    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final int DEFAULT_FAN_OUT_THREADS = 32;
+    private static final int MAX_ROUTE_TEMPLATES = 256;
+    static final ObjectMapper JSON_MAPPER = new ObjectMapper();
     private static final ObjectParser OBJECT_PARSER = new ObjectParser() {
         @Override
         public <T> T parseAndClose(InputStream inputStream, Charset charset, Class<T> aClass)
@@ -69,24 +88,64 @@ public abstract class BrowserStackClient implements BrowserStackClientInterface
             throw new IOException("Unsupported operation");
         }
     };
-    private static HttpTransport HTTP_TRANSPORT = new ApacheHttpTransport();
     protected final BrowserStackCache<String, Object> cacheMap;
 
-    private HttpRequestFactory requestFactory;
+    private volatile HttpTransportConfig transportConfig;
 
-    private String baseUrl;
+    private volatile TransportHandle transport;
+
+    private volatile ExecutorService fanOutExecutor;
+
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+
+    private volatile boolean coalesceRequests = true;
+
+    private volatile long refreshAheadInterval;
 
-    private String username;
+    private volatile RetryPolicy retryPolicy = new RetryPolicy();
 
-    private String accessKey;
+    private volatile RateLimiter rateLimiter;
+
+    private volatile CircuitBreaker circuitBreaker;
+
+    /**
+     * Parsed request paths, keyed by the path relative to the base URL.
+     */
+    private final Map<String, RouteTemplate> routeTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * Catalogues built from cached listings, keyed by cache key.
+     */
+    private final Map<String, CatalogSnapshot> catalogs = new ConcurrentHashMap<>();
+
+    private final List<CatalogListener> catalogListeners = new CopyOnWriteArrayList<>();
+
+    private String baseUrl;
+
+    private final AtomicReference<Credentials> credentials = new AtomicReference<>();
 
     protected BrowserStackClient() {
+        this(new HttpTransportConfig());
+    }
+
+    protected BrowserStackClient(final HttpTransportConfig transportConfig) {
+        if (transportConfig == null) {
+            throw new IllegalArgumentException("Invalid transportConfig");
+        }
+
         this.cacheMap = new BrowserStackCache<>();
-        this.requestFactory = newRequestFactory();
+        this.cacheMap.addListener(this::onCacheReplace);
+        this.transportConfig = new HttpTransportConfig(transportConfig);
+        this.transport = newTransportHandle(this.transportConfig);
     }
 
     public BrowserStackClient(String baseUrl, String username, String accessKey) {
-        this();
+        this(baseUrl, username, accessKey, new HttpTransportConfig());
+    }
+
+    public BrowserStackClient(String baseUrl, String username, String accessKey,
+                              HttpTransportConfig transportConfig) {
+        this(transportConfig);
 
         if (baseUrl == null) {
             throw new IllegalArgumentException("Invalid baseUrl");
@@ -101,12 +160,20 @@ public abstract class BrowserStackClient implements BrowserStackClientInterface
         }
 
         this.baseUrl = baseUrl;
-        this.username = username.trim();
-        this.accessKey = accessKey.trim();
+        this.credentials.set(new Credentials(username.trim(), accessKey.trim()));
+
+        final String cacheDirectory = System.getProperty("browserstack.cache.dir");
+        if (cacheDirectory != null && cacheDirectory.trim().length() > 0) {
+            setCacheDirectory(new File(cacheDirectory.trim()));
+        }
     }
 
-    static HttpRequestFactory newRequestFactory() {
-        return HTTP_TRANSPORT.createRequestFactory(httpRequest -> httpRequest.setParser(OBJECT_PARSER));
+    private static TransportHandle newTransportHandle(final HttpTransportConfig config) {
+        final int connectTimeout = config.getConnectTimeout();
+        final int readTimeout = config.getReadTimeout();
+        return new TransportHandle(config.newTransport(), httpRequest -> httpRequest.setParser(OBJECT_PARSER)
+                .setConnectTimeout(connectTimeout)
+                .setReadTimeout(readTimeout), config.getTransport() == null);
     }
 
     static HttpRequest newRequest(final HttpRequestFactory requestFactory, final Method method, final GenericUrl url) throws BrowserStackException {
@@ -145,51 +212,405 @@ public abstract class BrowserStackClient implements BrowserStackClientInterface
     }
 
     /**
-     * Sets proxy configuration for requests
+     * Sets proxy configuration for requests made by this client.
      *
-     * @param proxyHost     Host of the proxy
+     * <p>
+     * Only this client's transport is replaced; other clients in the same JVM keep their own
+     * connection pools. Requests already being sent finish on the previous transport, which is
+     * shut down once they are done.
+     * </p>
+     *
+     * @param proxyHost     Host of the proxy, or null to stop using a proxy.
      * @param proxyPort     Port of the proxy
      * @param proxyUsername Username of proxy
      * @param proxyPassword password of the proxy
      */
+    @Override
+    public synchronized void setProxy(final String proxyHost, final int proxyPort, final String proxyUsername, final String proxyPassword) {
+        if (proxyHost != null && proxyPort <= 0) {
+            throw new IllegalArgumentException("Invalid proxyPort");
+        }
+
+        if (proxyHost == null && !transportConfig.hasProxy()) {
+            return;
+        }
+
+        final HttpTransportConfig config = new HttpTransportConfig(transportConfig);
+        if (proxyHost == null) {
+            config.setProxy(null, 0, null, null);
+        } else {
+            config.setProxy(proxyHost, proxyPort, proxyUsername, proxyPassword);
+        }
+
+        final TransportHandle previous = this.transport;
+        final TransportHandle next = newTransportHandle(config);
+
+        this.transportConfig = config;
+        this.transport = next;
+        previous.retire(next);
+    }
+
+    /**
+     * @return a copy of the transport configuration used by this client.
+     */
+    public HttpTransportConfig getTransportConfig() {
+        return new HttpTransportConfig(transportConfig);
+    }
+
+    /**
+     * Returns the executor used to fan out requests issued by a single call, such as paginated
+     * session fetches. It runs on virtual threads when the runtime supports them.
+     *
+     * @return the executor shared by fan-out operations of this client.
+     */
+    protected ExecutorService getFanOutExecutor() {
+        ExecutorService executor = fanOutExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = fanOutExecutor;
+                if (executor == null) {
+                    executor = TaskExecutors.newFanOutExecutor(DEFAULT_FAN_OUT_THREADS, "browserstack-fanout");
+                    fanOutExecutor = executor;
+                }
+            }
+        }
+
+        return executor;
+    }
+
+    /**
+     * Applies a task to every key on the fan-out executor, with at most {@code maxConcurrency}
+     * tasks running at once. A failing task is recorded in the result and does not stop the
+     * others. Returns once every task has finished.
+     *
+     * @param keys           Keys identifying the items, such as session ids.
+     * @param maxConcurrency Maximum number of tasks running at the same time.
+     * @param task           Operation applied to each key.
+     * @param <T>            Type of the value produced for each key.
+     * @return the values and errors, by key.
+     */
+    protected <T> BatchResult<T> runBatch(final Collection<String> keys, final int maxConcurrency,
+                                          final BatchResult.Task<? extends T> task) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Invalid keys");
+        }
+
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Invalid maxConcurrency");
+        }
+
+        final BatchResult<T> result = new BatchResult<>();
+        final ExecutorService executor = getFanOutExecutor();
+        final Semaphore permits = new Semaphore(maxConcurrency);
+
+        InterruptedException interrupted = null;
+        for (String key : keys) {
+            if (interrupted == null) {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    interrupted = e;
+                }
+            }
+
+            if (interrupted != null) {
+                result.addFailure(key, new BrowserStackException(interrupted));
+                continue;
+            }
 
+            try {
+                executor.execute(() -> {
+                    try {
+                        result.addSuccess(key, task.run(key));
+                    } catch (BrowserStackException e) {
+                        result.addFailure(key, e);
+                    } catch (Exception e) {
+                        result.addFailure(key, new BrowserStackException(e));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                result.addFailure(key, new BrowserStackException(e));
+            }
+        }
+
+        if (interrupted == null) {
+            // wait for the tasks still running
+            permits.acquireUninterruptibly(maxConcurrency);
+            permits.release(maxConcurrency);
+        } else {
+            Thread.currentThread().interrupt();
+        }
+
+        return result;
+    }
+
+    /**
+     * Releases the pooled connections and worker threads held by this client and stops any
+     * background listing refreshes.
+     */
     @Override
-    public void setProxy(final String proxyHost, final int proxyPort, final String proxyUsername, final String proxyPassword) {
+    public void close() {
+        cacheMap.stopRefreshing();
 
-        if (proxyHost == null || proxyPort == 0) {
+        ExecutorService executor = fanOutExecutor;
+        if (executor != null) {
+            executor.shutdown();
+        }
+
+        transport.retire(null);
+    }
+
+    /**
+     * Enables or disables request coalescing, which is on by default.
+     *
+     * <p>
+     * While enabled, identical GET requests issued concurrently through this client (same URL,
+     * Accept header and response type) share a single network call, and every caller receives
+     * the same parsed response object.
+     * </p>
+     *
+     * @param coalesceRequests true to coalesce concurrent identical GET requests.
+     */
+    public void setRequestCoalescing(final boolean coalesceRequests) {
+        this.coalesceRequests = coalesceRequests;
+    }
+
+    /**
+     * Sets how failed requests are retried. By default idempotent requests are retried up to
+     * three times on connection errors and on 429, 502, 503 and 504 responses.
+     *
+     * @param retryPolicy Policy applied to requests created from now on, or null to never retry.
+     */
+    public void setRetryPolicy(final RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Limits the rate of requests sent by this client. Every attempt, including retries, takes a
+     * token before it is sent. No limit is applied by default.
+     *
+     * @param rateLimiter Limiter for requests created from now on, or null for no limit.
+     */
+    public void setRateLimiter(final RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Limits this client with the limiter shared by every client of the same account in this JVM.
+     *
+     * @param readsPerSecond  Sustained rate of GET requests, if the shared limiter is created now.
+     * @param writesPerSecond Sustained rate of mutating requests, if the shared limiter is created now.
+     * @return the shared limiter.
+     * @see RateLimiter#forUsername(String, double, double)
+     */
+    public RateLimiter useSharedRateLimiter(final double readsPerSecond, final double writesPerSecond) {
+        final RateLimiter limiter = RateLimiter.forUsername(checkAuthState().username, readsPerSecond,
+                writesPerSecond);
+        setRateLimiter(limiter);
+        return limiter;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Sets the circuit breaker guarding requests of this client. Once the circuit is open,
+     * requests fail fast with a
+     * {@link com.browserstack.client.exception.BrowserStackCircuitOpenException}. No breaker is
+     * used by default.
+     *
+     * @param circuitBreaker Breaker for requests created from now on, or null to always send them.
+     */
+    public void setCircuitBreaker(final CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Guards this client with the breaker shared by every client in this JVM that uses the same
+     * base URL, so once the API is failing all of them fail fast together.
+     *
+     * @return the shared breaker.
+     * @see CircuitBreaker#forBaseUrl(String)
+     */
+    public CircuitBreaker useSharedCircuitBreaker() {
+        final CircuitBreaker breaker = CircuitBreaker.forBaseUrl(baseUrl);
+        setCircuitBreaker(breaker);
+        return breaker;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Enables refresh-ahead for the cached browser and platform listings.
+     *
+     * <p>
+     * Once a listing has been loaded, it is reloaded in the background every
+     * {@code refreshInterval} milliseconds, so cached reads never wait on a refetch. If a reload
+     * fails the previous listing keeps being served.
+     * </p>
+     *
+     * @param refreshInterval Milliseconds between background reloads; 0 disables refresh-ahead.
+     */
+    public void setRefreshAhead(final long refreshInterval) {
+        if (refreshInterval < 0) {
+            throw new IllegalArgumentException("Invalid refreshInterval");
+        }
+
+        this.refreshAheadInterval = refreshInterval;
+        if (refreshInterval == 0) {
+            cacheMap.stopRefreshing();
+        }
+    }
+
+    /**
+     * Persists cached browser and platform listings under the given directory, so that other
+     * JVMs using the same directory can skip downloading them until they expire.
+     *
+     * <p>
+     * Can also be enabled for every client with the {@code browserstack.cache.dir} system
+     * property.
+     * </p>
+     *
+     * @param directory Directory for the cache files, or null to keep listings in memory only.
+     */
+    public void setCacheDirectory(final File directory) {
+        if (directory == null) {
+            cacheMap.setDiskStore(null);
             return;
         }
 
-        final HttpHost proxy = new HttpHost(proxyHost, proxyPort);
-        HttpClientBuilder clientBuilder = HttpClientBuilder.create().setProxy(proxy);
+        final GenericUrl url = new GenericUrl(baseUrl);
+        cacheMap.setDiskStore(new BrowserStackDiskStore(directory, url.getHost() + url.getRawPath(),
+                BrowserListing.class, Browser[].class));
+    }
 
-        if (proxyUsername != null && proxyUsername.length() != 0 && proxyPassword != null && proxyPassword.length() != 0) {
-            final BasicCredentialsProvider basicCredentialsProvider = new BasicCredentialsProvider();
-            final AuthScope proxyAuthScope = new AuthScope(proxyHost, proxyPort);
-            UsernamePasswordCredentials proxyAuthentication =
-                    new UsernamePasswordCredentials(proxyUsername, proxyPassword);
-            basicCredentialsProvider.setCredentials(proxyAuthScope, proxyAuthentication);
+    /**
+     * Notifies the listener whenever a cached browser listing is replaced by one that adds,
+     * removes or changes browsers or devices. This covers listings fetched again after the cached
+     * one expired as well as listings reloaded in the background with
+     * {@link #setRefreshAhead(long)}. The first listing fetched after the listener is added only
+     * serves as the baseline for later comparisons.
+     *
+     * @param listener Receives the differences between the old and new listing.
+     */
+    public void addCatalogListener(final CatalogListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Invalid listener");
+        }
+
+        catalogListeners.add(listener);
+    }
+
+    public void removeCatalogListener(final CatalogListener listener) {
+        catalogListeners.remove(listener);
+    }
 
-            clientBuilder.setDefaultCredentialsProvider(basicCredentialsProvider);
+    private void onCacheReplace(final String key, final Object previous, final Object current) {
+        if (catalogListeners.isEmpty() || !key.startsWith(CACHE_KEY_PREFIX_BROWSERS)) {
+            return;
+        }
+
+        // an expired listing is evicted before it is fetched again, so there is no previous
+        // value; the catalogue last built for the key still describes it
+        final CatalogSnapshot snapshot = catalogs.get(key);
+        final BrowserCatalog before;
+        if (previous == null) {
+            before = (snapshot != null) ? snapshot.catalog : null;
+        } else {
+            before = (snapshot != null && snapshot.listing == previous)
+                    ? snapshot.catalog : newCatalog(previous);
         }
 
-        final HttpClient client = clientBuilder.build();
-        HTTP_TRANSPORT = new ApacheHttpTransport(client);
-        this.requestFactory = newRequestFactory();
+        final BrowserCatalog after = catalogFor(key, current, () -> newCatalog(current));
+        if (before == null || after == null) {
+            return;
+        }
+
+        final CatalogDiff diff = CatalogDiff.between(before, after);
+        if (diff.isEmpty()) {
+            return;
+        }
+
+        for (CatalogListener listener : catalogListeners) {
+            try {
+                listener.onCatalogChanged(diff);
+            } catch (RuntimeException e) {
+                // one failing listener must not keep the others from being notified
+            }
+        }
+    }
+
+    private static BrowserCatalog newCatalog(final Object listing) {
+        if (listing instanceof BrowserListing) {
+            return BrowserCatalog.of((BrowserListing) listing);
+        }
+
+        if (listing instanceof Browser[]) {
+            return BrowserCatalog.of(Arrays.asList((Browser[]) listing));
+        }
+
+        return null;
+    }
+
+    /**
+     * Registers a cached value for background reloading if refresh-ahead is enabled. Reloads run
+     * on the fan-out executor of this client.
+     *
+     * @param cacheKey Key of the cached value.
+     * @param loader   Fetches a fresh value, bypassing the cache.
+     */
+    protected void refreshAhead(final String cacheKey, final BrowserStackCache.Loader<?> loader) {
+        final long refreshInterval = refreshAheadInterval;
+        if (refreshInterval > 0) {
+            cacheMap.refreshAhead(cacheKey, loader, refreshInterval, getFanOutExecutor());
+        }
     }
 
     protected String getAccessKey() {
-        return accessKey;
+        final Credentials current = credentials.get();
+        return (current != null) ? current.accessKey : null;
     }
 
-    protected synchronized void setAccessKey(final String accessKey) {
-        this.accessKey = accessKey;
+    /**
+     * Replaces the access key used to sign new requests. Requests already signed keep the key
+     * they were created with.
+     *
+     * @param accessKey New access key.
+     */
+    protected void setAccessKey(final String accessKey) {
+        credentials.updateAndGet(current ->
+                new Credentials((current != null) ? current.username : null, accessKey));
     }
 
-    private void checkAuthState() {
-        if (this.accessKey == null && this.username == null) {
+    private Credentials checkAuthState() {
+        final Credentials current = credentials.get();
+        if (current == null || (current.accessKey == null && current.username == null)) {
             throw new IllegalStateException("Missing API credentials");
         }
+
+        return current;
+    }
+
+    /**
+     * @return the current transport, registered as in use until released.
+     */
+    private TransportHandle acquireTransport() throws BrowserStackException {
+        final TransportHandle handle = BrowserStackRequest.acquire(transport);
+        if (handle == null) {
+            throw new BrowserStackException("Client is closed");
+        }
+
+        return handle;
     }
 
     protected BrowserListing getBrowsersForProduct(Product product) throws BrowserStackException {
@@ -203,32 +624,66 @@ public abstract class BrowserStackClient implements BrowserStackClientInterface
         String cacheKey = (CACHE_KEY_PREFIX_BROWSERS + productName).toLowerCase();
 
         if (cache) {
-            if (cacheMap.containsKey(cacheKey)) {
-                BrowserListing browserListing = (BrowserListing) cacheMap.get(cacheKey);
-                if (browserListing != null) {
-                    return browserListing;
-                }
+            BrowserListing browserListing = (BrowserListing) cacheMap.get(cacheKey);
+            if (browserListing != null) {
+                return browserListing;
             }
         }
 
-        BrowserListing browserListing;
-
-        try {
-            GenericUrl url =
-                    new GenericUrl(BASE_URL + "/list-of-browsers-and-platforms.json?product=" + productName);
-            HttpResponse response = newRequest(requestFactory, Method.GET, url).execute();
-            browserListing = response.parseAs(BrowserListing.class);
-        } catch (IOException e) {
-            throw new BrowserStackException(e.getMessage(), 400);
-        }
+        final GenericUrl url =
+                new GenericUrl(BASE_URL + "/list-of-browsers-and-platforms.json?product=" + productName);
+        final RequestCoalescer.Call<BrowserListing> fetch = () -> {
+            final TransportHandle handle = acquireTransport();
+            try {
+                HttpResponse response = newRequest(handle.getRequestFactory(), Method.GET, url).execute();
+                return response.parseAs(BrowserListing.class);
+            } catch (IOException e) {
+                throw new BrowserStackException(e.getMessage(), 400);
+            } finally {
+                handle.release();
+            }
+        };
+        final BrowserListing browserListing =
+                coalesceRequests ? coalescer.execute("GET " + url.build(), fetch) : fetch.call();
 
         if (cache) {
             cacheMap.put(cacheKey, browserListing);
+            refreshAhead(cacheKey, () -> getBrowsersForProduct(product, false));
         }
 
         return browserListing;
     }
 
+    /**
+     * Returns an indexed catalogue of the browsers and devices offered for a product. The
+     * catalogue is rebuilt only when the cached listing is replaced.
+     *
+     * @param product Product to list browsers for.
+     * @return the catalogue.
+     * @throws BrowserStackException if the listing could not be fetched.
+     */
+    protected BrowserCatalog getBrowserCatalog(final Product product) throws BrowserStackException {
+        final BrowserListing listing = getBrowsersForProduct(product);
+        return catalogFor(CACHE_KEY_PREFIX_BROWSERS + product.name().toLowerCase(), listing,
+                () -> BrowserCatalog.of(listing));
+    }
+
+    /**
+     * Returns the catalogue last built for the given listing instance, or builds one if the
+     * listing changed since.
+     */
+    protected final BrowserCatalog catalogFor(final String key, final Object listing,
+                                              final Supplier<BrowserCatalog> builder) {
+        final CatalogSnapshot current = catalogs.get(key);
+        if (current != null && current.listing == listing) {
+            return current.catalog;
+        }
+
+        final BrowserCatalog catalog = builder.get();
+        catalogs.put(key, new CatalogSnapshot(listing, catalog));
+        return catalog;
+    }
+
     protected BrowserStackRequest newRequest(final Method method, final String path)
             throws BrowserStackException {
         return newRequest(method, path, true);
@@ -237,8 +692,24 @@ public abstract class BrowserStackClient implements BrowserStackClientInterface
     protected BrowserStackRequest newRequest(final Method method, final String path,
                                              final boolean prependUrl) throws BrowserStackException {
         String urlPath = (path == null) ? "" : path;
-        GenericUrl url = new GenericUrl(prependUrl ? this.baseUrl + urlPath : urlPath);
-        return signRequest(newRequest(requestFactory, method, url));
+        if (!prependUrl) {
+            final TransportHandle handle = transport;
+            return signRequest(newRequest(handle.getRequestFactory(), method, new GenericUrl(urlPath)))
+                    .withTransport(handle);
+        }
+
+        RouteTemplate route = routeTemplates.get(urlPath);
+        if (route == null) {
+            route = RouteTemplate.compile(this.baseUrl + urlPath);
+            if (routeTemplates.size() < MAX_ROUTE_TEMPLATES) {
+                routeTemplates.putIfAbsent(urlPath, route);
+            }
+        }
+
+        final TransportHandle handle = transport;
+        return signRequest(newRequest(handle.getRequestFactory(), method, route.newUrl()))
+                .withTransport(handle)
+                .withRoute(route);
     }
 
     protected BrowserStackRequest newRequest(final Method method, final String path,
@@ -267,14 +738,13 @@ public abstract class BrowserStackClient implements BrowserStackClientInterface
     }
 
     protected BrowserStackRequest signRequest(final HttpRequest request) {
-        checkAuthState();
-        final HttpHeaders header = new HttpHeaders();
-        final String combined = this.username + ":" + this.accessKey;
-        final String encoded = new String(Base64.encodeBase64(combined.getBytes()));
-        final String credential = "Basic " + encoded;
-        header.set("Authorization", credential);
-        request.setHeaders(header);
-        return new BrowserStackRequest(request);
+        final Credentials current = checkAuthState();
+        request.setHeaders(new HttpHeaders().setAuthorization(current.authorization));
+        final BrowserStackRequest browserStackRequest = new BrowserStackRequest(request)
+                .withRetryPolicy(retryPolicy)
+                .withRateLimiter(rateLimiter)
+                .withCircuitBreaker(circuitBreaker);
+        return coalesceRequests ? browserStackRequest.coalesceWith(coalescer) : browserStackRequest;
     }
 
     /**
@@ -293,6 +763,13 @@ public abstract class BrowserStackClient implements BrowserStackClientInterface
     @Override
     public List<Build> getBuilds(final BuildStatus status, final int limit, final String buildName)
             throws BrowserStackException {
+        final List<Build> builds = new ArrayList<>();
+        fetchBuilds(status, limit, 0, buildName, builds::add);
+        return builds;
+    }
+
+    private int fetchBuilds(final BuildStatus status, final int limit, final int offset, final String buildName,
+                            final Consumer<? super Build> consumer) throws BrowserStackException {
         BrowserStackRequest httpRequest;
         try {
             httpRequest = newRequest(Method.GET, "/builds.json");
@@ -304,6 +781,10 @@ public abstract class BrowserStackClient implements BrowserStackClientInterface
             httpRequest.queryString(Constants.Filter.LIMIT, limit);
         }
 
+        if (offset > 0) {
+            httpRequest.queryString(Constants.Filter.OFFSET, offset);
+        }
+
         if (status != null) {
             httpRequest.queryString(Constants.Filter.FILTER, status.name().toLowerCase());
         }
@@ -312,16 +793,11 @@ public abstract class BrowserStackClient implements BrowserStackClientInterface
             httpRequest.queryString(Constants.Filter.BUILD_NAME, buildName);
         }
 
-        final BuildNode[] buildNodes = httpRequest.asObject(BuildNode[].class);
-
-        final List<Build> builds = new ArrayList<>();
-        for (BuildNode buildNode : buildNodes) {
+        return httpRequest.forEachElement(BuildNode.class, buildNode -> {
             if (buildNode != null && buildNode.getBuild() != null) {
-                builds.add(buildNode.getBuild().setClient(this));
+                consumer.accept(buildNode.getBuild().setClient(this));
             }
-        }
-
-        return builds;
+        });
     }
 
     /**
@@ -446,6 +922,102 @@ public abstract class BrowserStackClient implements BrowserStackClientInterface
         return (status != null && status.equals("ok"));
     }
 
+    /**
+     * Deletes many builds at once, with at most {@code maxConcurrency} deletions in flight.
+     * A failed deletion does not stop the others.
+     *
+     * @param buildIds       IDs of the builds to delete.
+     * @param maxConcurrency Maximum number of deletions in flight at the same time.
+     * @return the outcome of each deletion, by build id.
+     */
+    public BatchResult<Boolean> deleteBuilds(final Collection<String> buildIds, final int maxConcurrency) {
+        return runBatch(buildIds, maxConcurrency, this::deleteBuild);
+    }
+
+    /**
+     * Deletes every build matching a retention policy.
+     *
+     * <p>
+     * All builds are listed first, one page at a time, so that deletions do not shift the pages
+     * still to be read. Matching builds are then deleted in parallel, up to the concurrency of
+     * the policy and under the rate limiter of this client, if any.
+     * </p>
+     *
+     * @param policy Selects the builds to delete.
+     * @return the deleted builds, or the matching builds on a dry run, and the errors of failed
+     * deletions, by build id.
+     * @throws BrowserStackException if the builds could not be listed.
+     */
+    public BatchResult<Build> purgeBuilds(final PurgePolicy policy) throws BrowserStackException {
+        if (policy == null) {
+            throw new IllegalArgumentException("Invalid policy");
+        }
+
+        final long now = System.currentTimeMillis();
+        final PurgePolicy.Listener listener = policy.getListener();
+        final Map<String, Build> matched = new LinkedHashMap<>();
+        int scanned = 0;
+        int offset = 0;
+        int pageSize;
+        do {
+            pageSize = fetchBuilds(policy.getStatus(), Constants.Filter.MAX_LIMIT, offset, null, build -> {
+                switch (policy.evaluate(build, now)) {
+                    case PURGE:
+                        matched.put(build.getId(), build);
+                        break;
+
+                    case SKIP:
+                        if (listener != null) {
+                            listener.onSkipped(build);
+                        }
+                        break;
+
+                    default:
+                        break;
+                }
+            });
+
+            scanned += pageSize;
+            offset += Constants.Filter.MAX_LIMIT;
+        } while (pageSize >= Constants.Filter.MAX_LIMIT);
+
+        if (listener != null) {
+            listener.onScanned(scanned, matched.size());
+        }
+
+        if (policy.isDryRun()) {
+            final BatchResult<Build> result = new BatchResult<>();
+            for (Build build : matched.values()) {
+                result.addSuccess(build.getId(), build);
+                if (listener != null) {
+                    listener.onDeleted(build);
+                }
+            }
+
+            return result;
+        }
+
+        return runBatch(matched.keySet(), policy.getMaxConcurrency(), buildId -> {
+            final Build build = matched.get(buildId);
+            try {
+                if (!deleteBuild(buildId)) {
+                    throw new BrowserStackException("Failed to delete build: " + buildId);
+                }
+            } catch (BrowserStackException e) {
+                if (listener != null) {
+                    listener.onFailed(build, e);
+                }
+                throw e;
+            }
+
+            if (listener != null) {
+                listener.onDeleted(build);
+            }
+
+            return build;
+        });
+    }
+
     /**
      * Retrieves the list of sessions existing under a specific build.
      * If no limit is specified, all the sessions will be fetched from that build
@@ -460,6 +1032,29 @@ public abstract class BrowserStackClient implements BrowserStackClientInterface
     @Override
     public List<Session> getSessions(final String buildId, final BuildStatus status, final int limit)
             throws BuildNotFound, BrowserStackException {
+        return getSessions(buildId, status, limit, 1);
+    }
+
+    /**
+     * Retrieves the list of sessions existing under a specific build, fetching up to
+     * {@code parallelism} pages of {@value Constants.Filter#MAX_LIMIT} sessions concurrently.
+     *
+     * <p>
+     * Pages are assembled in offset order, so the result is the same as a sequential fetch.
+     * Once a short page marks the end of the build, pages requested beyond it are cancelled.
+     * </p>
+     *
+     * @param buildId     ID that uniquely identifies a build.
+     * @param status      Include only builds that match the specified build status.
+     * @param limit       Limit results to the specified count.
+     * @param parallelism Maximum number of pages requested at the same time; 1 fetches sequentially.
+     * @return List of {@link Session} objects containing test session information.
+     * @throws BuildNotFound could not find build with given id
+     * @throws BrowserStackException Browserstack exception object.
+     */
+    @Override
+    public List<Session> getSessions(final String buildId, final BuildStatus status, final int limit,
+                                     final int parallelism) throws BuildNotFound, BrowserStackException {
 
         // validation of the limit field. Default will be set to 1000 if 0 is provided
         final int totalLimit =
@@ -473,20 +1068,18 @@ public abstract class BrowserStackClient implements BrowserStackClientInterface
             totalRequests++;
         }
 
+        if (parallelism > 1 && totalRequests > 1) {
+            return getSessionsParallel(buildId, status, totalLimit, totalRequests, parallelism);
+        }
+
         final List<Session> sessions = new ArrayList<>();
 
         // currReq will act as offset to fetch all* sessions from the build
         for (int currReq = 0; currReq < totalRequests; currReq++) {
-            final List<SessionNode> sessionNodes = getSessionNodes(buildId, status, totalLimit, currReq * Constants.Filter.MAX_LIMIT);
-
-            for (SessionNode sessionNode : sessionNodes) {
-                if (sessionNode != null && sessionNode.getSession() != null) {
-                    sessions.add(sessionNode.getSession().setClient(this));
-                }
-            }
+            final int nodeCount = fetchSessions(buildId, status, totalLimit, currReq * Constants.Filter.MAX_LIMIT, sessions::add);
 
             // break the loop since there are no more sessions left to fetch
-            if (sessionNodes.size() < Constants.Filter.MAX_LIMIT) {
+            if (nodeCount < Constants.Filter.MAX_LIMIT) {
                 break;
             }
         }
@@ -494,24 +1087,161 @@ public abstract class BrowserStackClient implements BrowserStackClientInterface
         return sessions;
     }
 
-    private List<SessionNode> getSessionNodes(String buildId, BuildStatus status, int totalLimit, int offset) throws BrowserStackException {
+    private List<Session> getSessionsParallel(final String buildId, final BuildStatus status, final int totalLimit,
+                                              final int totalRequests, final int parallelism)
+            throws BrowserStackException {
+        final ExecutorService executor = getFanOutExecutor();
+        final List<Future<SessionPage>> pages = new ArrayList<>(totalRequests);
+        final List<Session> sessions = new ArrayList<>();
+
+        try {
+            // keep a window of `parallelism` pages in flight, consuming them in offset order
+            int nextReq = 0;
+            for (; nextReq < totalRequests && nextReq < parallelism; nextReq++) {
+                final int offset = nextReq * Constants.Filter.MAX_LIMIT;
+                pages.add(executor.submit(() -> getSessionPage(buildId, status, totalLimit, offset)));
+            }
+
+            for (int currReq = 0; currReq < totalRequests; currReq++) {
+                final SessionPage page = awaitPage(pages.get(currReq));
+                sessions.addAll(page.sessions);
+
+                // the build has no more sessions, pages still in flight are past the end
+                if (page.isLast()) {
+                    break;
+                }
+
+                if (nextReq < totalRequests) {
+                    final int offset = nextReq * Constants.Filter.MAX_LIMIT;
+                    pages.add(executor.submit(() -> getSessionPage(buildId, status, totalLimit, offset)));
+                    nextReq++;
+                }
+            }
+        } finally {
+            for (Future<SessionPage> page : pages) {
+                page.cancel(true);
+            }
+        }
+
+        return sessions;
+    }
+
+    private static <T> T awaitPage(final Future<T> page) throws BrowserStackException {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BrowserStackException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof BrowserStackException) {
+                throw (BrowserStackException) cause;
+            }
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new BrowserStackException(e);
+        }
+    }
+
+    SessionPage getSessionPage(String buildId, BuildStatus status, int limit, int offset) throws BrowserStackException {
+        final List<Session> sessions = new ArrayList<>(Constants.Filter.MAX_LIMIT);
+        final int nodeCount = fetchSessions(buildId, status, limit, offset, sessions::add);
+        return new SessionPage(sessions, nodeCount);
+    }
+
+    /**
+     * Fetches one offset page of sessions, handing each session to the consumer as soon as it is
+     * decoded from the response.
+     *
+     * @return the number of nodes in the page, including nodes without a session.
+     */
+    private int fetchSessions(String buildId, BuildStatus status, int limit, int offset,
+                              Consumer<? super Session> consumer) throws BrowserStackException {
         BrowserStackRequest httpRequest = newRequest(Method.GET, "/builds/{buildId}/sessions.json").routeParam(
                 "buildId", buildId);
 
-        httpRequest.queryString(Constants.Filter.LIMIT, totalLimit);
+        httpRequest.queryString(Constants.Filter.LIMIT, limit);
         httpRequest.queryString(Constants.Filter.OFFSET, offset);
 
         if (status != null) {
             httpRequest.queryString(Constants.Filter.FILTER, status);
         }
 
-        final List<SessionNode> sessionNodes;
         try {
-            sessionNodes = Arrays.asList(httpRequest.asObject(SessionNode[].class));
+            return httpRequest.forEachElement(SessionNode.class, sessionNode -> {
+                if (sessionNode != null && sessionNode.getSession() != null) {
+                    consumer.accept(sessionNode.getSession().setClient(this));
+                }
+            });
         } catch (BrowserStackObjectNotFound e) {
             throw new BuildNotFound("Build not found: " + buildId);
         }
-        return sessionNodes;
+    }
+
+    /**
+     * Hands every session of a build to the consumer as it is decoded, one page at a time,
+     * without building a list. Unlike {@link #getSessions(String, BuildStatus, int)} it is not
+     * bound by the {@value Constants.Filter#MAX_SESSIONS} session cap.
+     *
+     * @param buildId  ID that uniquely identifies a build.
+     * @param status   Include only sessions that match the specified status.
+     * @param consumer Receives each {@link Session}, in order.
+     * @return number of sessions handed to the consumer.
+     * @throws BuildNotFound could not find build with given id
+     * @throws BrowserStackException Browserstack exception object.
+     */
+    @Override
+    public int forEachSession(final String buildId, final BuildStatus status,
+                              final Consumer<? super Session> consumer)
+            throws BuildNotFound, BrowserStackException {
+        final int[] count = new int[1];
+        final Consumer<Session> counting = session -> {
+            consumer.accept(session);
+            count[0]++;
+        };
+
+        for (int offset = 0; ; offset += Constants.Filter.MAX_LIMIT) {
+            if (fetchSessions(buildId, status, Constants.Filter.MAX_LIMIT, offset, counting) < Constants.Filter.MAX_LIMIT) {
+                return count[0];
+            }
+        }
+    }
+
+    /**
+     * Lazily streams every session of a build, without the {@value Constants.Filter#MAX_SESSIONS}
+     * session cap of {@link #getSessions(String, BuildStatus, int)}.
+     *
+     * <p>
+     * Pages of {@value Constants.Filter#MAX_LIMIT} sessions are requested only as the stream is
+     * consumed, with the following page prefetched in the background. Short-circuiting operations
+     * such as {@code limit} or {@code findFirst} stop fetching early; close the stream to cancel a
+     * pending prefetch. Request failures surface as {@link BrowserStackResponseException}.
+     * </p>
+     *
+     * @param buildId ID that uniquely identifies a build.
+     * @param status  Include only sessions that match the specified status.
+     * @return Stream of {@link Session} objects containing test session information.
+     */
+    @Override
+    public Stream<Session> streamSessions(final String buildId, final BuildStatus status) {
+        final SessionPageIterator iterator = new SessionPageIterator(this, buildId, status, getFanOutExecutor());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(iterator::close);
+    }
+
+    /**
+     * Lazily streams every session of a build.
+     *
+     * @param buildId ID that uniquely identifies a build.
+     * @return Stream of {@link Session} objects containing test session information.
+     * @see #streamSessions(String, BuildStatus)
+     */
+    @Override
+    public Stream<Session> streamSessions(final String buildId) {
+        return streamSessions(buildId, null);
     }
 
     /**
@@ -585,7 +1315,35 @@ public abstract class BrowserStackClient implements BrowserStackClientInterface
         GET, POST, PUT, DELETE
     }
 
+    private static final class CatalogSnapshot {
+        private final Object listing;
+        private final BrowserCatalog catalog;
+
+        private CatalogSnapshot(final Object listing, final BrowserCatalog catalog) {
+            this.listing = listing;
+            this.catalog = catalog;
+        }
+    }
+
     public enum Product {
         LIVE, AUTOMATE, SCREENSHOTS
     }
+
+    /**
+     * Username and access key with their precomputed {@code Authorization} header. Instances are
+     * immutable and swapped as a whole, so a request is always signed with a matching pair.
+     */
+    private static final class Credentials {
+        private final String username;
+        private final String accessKey;
+        private final String authorization;
+
+        private Credentials(final String username, final String accessKey) {
+            this.username = username;
+            this.accessKey = accessKey;
+
+            final String combined = username + ":" + accessKey;
+            this.authorization = "Basic " + Base64.encodeBase64String(combined.getBytes(StandardCharsets.UTF_8));
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package com.browserstack.client;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import com.browserstack.automate.Automate.BuildStatus;
 import com.browserstack.automate.exception.BuildNotFound;
 import com.browserstack.automate.exception.SessionNotFound;
@@ -31,6 +33,19 @@ public interface BrowserStackClientInterface {
   List<Session> getSessions(String buildId, BuildStatus status, int limit)
       throws BuildNotFound, BrowserStackException;
 
+  /**
+   * Fetches up to {@code parallelism} pages of sessions at a time. Implementations that do not
+   * fetch pages concurrently fall back to {@link #getSessions(String, BuildStatus, int)}.
+   */
+  default List<Session> getSessions(String buildId, BuildStatus status, int limit, int parallelism)
+      throws BuildNotFound, BrowserStackException {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Invalid parallelism");
+    }
+
+    return getSessions(buildId, status, limit);
+  }
+
   List<Session> getSessions(String buildId) throws BuildNotFound, BrowserStackException;
 
   List<Session> getSessions(String buildId, int limit) throws BuildNotFound, BrowserStackException;
@@ -38,6 +53,36 @@ public interface BrowserStackClientInterface {
   List<Session> getSessions(String buildId, BuildStatus status)
       throws BuildNotFound, BrowserStackException;
 
+  /**
+   * Hands every session of a build to the consumer. Implementations that do not page through the
+   * sessions themselves fall back to {@link #getSessions(String, BuildStatus)}.
+   */
+  default int forEachSession(String buildId, BuildStatus status, Consumer<? super Session> consumer)
+      throws BuildNotFound, BrowserStackException {
+    final List<Session> sessions = getSessions(buildId, status);
+    sessions.forEach(consumer);
+    return sessions.size();
+  }
+
+  /**
+   * Streams the sessions of a build. Implementations that do not page lazily fetch the sessions
+   * with {@link #getSessions(String, BuildStatus)} once the stream is consumed; request failures
+   * surface as {@link BrowserStackResponseException}.
+   */
+  default Stream<Session> streamSessions(String buildId, BuildStatus status) {
+    return Stream.of(buildId).flatMap(id -> {
+      try {
+        return getSessions(id, status).stream();
+      } catch (BrowserStackException e) {
+        throw new BrowserStackResponseException(e);
+      }
+    });
+  }
+
+  default Stream<Session> streamSessions(String buildId) {
+    return streamSessions(buildId, null);
+  }
+
   void setProxy(String proxyHost, int proxyPort, String proxyUsername, String proxyPassword);
 
 }
@@ -1,28 +1,48 @@
 package com.browserstack.client;
 
 import com.browserstack.client.exception.BrowserStackAuthException;
+import com.browserstack.client.exception.BrowserStackCircuitOpenException;
 import com.browserstack.client.exception.BrowserStackException;
 import com.browserstack.client.exception.BrowserStackObjectNotFound;
+import com.browserstack.client.util.Streams;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.api.client.http.*;
-import com.google.api.client.util.escape.CharEscapers;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
 
 
 public class BrowserStackRequest {
 
     private static final String releaseVersion = (getReleaseProperties("release.version") != null) ? getReleaseProperties("release.version") : "1.0";
     private static final String USER_AGENT = "browserstack-automate-java/"+releaseVersion;
-    private final HttpRequest httpRequest;
+    private HttpRequest httpRequest;
+
+    private TransportHandle transport;
+
+    private RequestCoalescer coalescer;
+
+    private RouteTemplate route;
+
+    private String[] routeValues;
+
+    private RetryPolicy retryPolicy;
+
+    private boolean retryable = true;
+
+    private RateLimiter rateLimiter;
+
+    private CircuitBreaker circuitBreaker;
 
     public BrowserStackRequest(HttpRequest httpRequest) {
         if (httpRequest == null) {
@@ -97,15 +117,26 @@ public class BrowserStackRequest {
     }
 
     public BrowserStackRequest routeParam(String name, String value) {
+        if (route != null) {
+            int index = route.indexOf(name);
+            if (index < 0) {
+                throw new RuntimeException("Can't find route parameter name \"" + name + "\"");
+            }
+
+            routeValues[index] = value;
+            route.expand(httpRequest.getUrl(), index, routeValues);
+            return this;
+        }
+
         List<String> pathParts = httpRequest.getUrl().getPathParts();
-        Pattern namePattern = Pattern.compile("\\{" + name + "\\}");
+        String placeholder = "{" + name + "}";
 
         int count = 0;
         for (int i = 0; i < pathParts.size(); i++) {
             String path = pathParts.get(i);
-            Matcher matcher = namePattern.matcher(path);
-            if (matcher.find()) {
-                pathParts.set(i, path.replaceFirst("\\{" + name + "\\}", CharEscapers.escapeUriPath(value)));
+            int start = path.indexOf(placeholder);
+            if (start >= 0) {
+                pathParts.set(i, path.substring(0, start) + value + path.substring(start + placeholder.length()));
                 count++;
             }
         }
@@ -117,36 +148,215 @@ public class BrowserStackRequest {
         return this;
     }
 
+    /**
+     * Binds this request to the pre-parsed route its URL was created from, so route parameters
+     * are filled in without scanning the path.
+     */
+    BrowserStackRequest withRoute(RouteTemplate route) {
+        this.route = route;
+        this.routeValues = new String[route.variableCount()];
+        return this;
+    }
+
+    /**
+     * @param retryable Whether this request may be sent again after a transient failure. Requests
+     *                  with side effects that must not repeat, even if idempotent in HTTP terms,
+     *                  should opt out.
+     * @return this request
+     */
+    public BrowserStackRequest retryable(boolean retryable) {
+        this.retryable = retryable;
+        return this;
+    }
+
+    BrowserStackRequest withRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    BrowserStackRequest withRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+        return this;
+    }
+
+    /**
+     * Tracks this request on the transport it was built from, so the transport is not shut down
+     * while the request is being sent.
+     */
+    BrowserStackRequest withTransport(TransportHandle transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    BrowserStackRequest withCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
+    /**
+     * Lets concurrent identical GET requests share one network call and one parsed result.
+     * Callers coalesced this way receive the same response object.
+     */
+    BrowserStackRequest coalesceWith(RequestCoalescer coalescer) {
+        this.coalescer = coalescer;
+        return this;
+    }
+
     public <T> T asObject(Class<? extends T> responseClass) throws BrowserStackException {
+        return coalesce(responseClass, () -> send(response -> response.parseAs(responseClass)));
+    }
+
+    /**
+     * Parses a JSON array response element by element, handing each decoded element to the
+     * consumer as soon as it is read instead of materializing the whole array first.
+     *
+     * @param elementClass Type of the array elements.
+     * @param consumer     Receives every element, in response order. Null elements are passed on.
+     * @param <T>          Type of the array elements.
+     * @return number of elements read from the array.
+     * @throws BrowserStackException if the request fails or the response is not a JSON array.
+     */
+    public <T> int forEachElement(Class<T> elementClass, Consumer<? super T> consumer)
+            throws BrowserStackException {
+        return send(response -> {
+            final ObjectReader reader = BrowserStackClient.JSON_MAPPER.readerFor(elementClass);
+            try (InputStream content = response.getContent();
+                 JsonParser parser = BrowserStackClient.JSON_MAPPER.getFactory().createParser(content)) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new BrowserStackException("Expected a JSON array in response");
+                }
+
+                int count = 0;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken() == null) {
+                        throw new BrowserStackException("Unexpected end of JSON array in response");
+                    }
+
+                    consumer.accept(reader.readValue(parser));
+                    count++;
+                }
+
+                return count;
+            }
+        });
+    }
+
+    /**
+     * Streams the response body to {@code out} as it arrives, so memory use does not depend on
+     * the size of the response. A failure part-way through leaves a truncated copy in
+     * {@code out}; the request is not retried once the body has started.
+     *
+     * @param out Destination of the response body. It is not closed.
+     * @return number of bytes written.
+     * @throws BrowserStackException if the request fails or the body could not be copied.
+     */
+    public long writeTo(OutputStream out) throws BrowserStackException {
+        return send(response -> {
+            try (InputStream content = response.getContent()) {
+                return (content != null) ? Streams.copy(content, out) : 0L;
+            }
+        });
+    }
+
+    /**
+     * Sends the request and hands the response to {@code handler}, keeping the transport
+     * registered as in use until the response has been consumed.
+     */
+    private <T> T send(ResponseHandler<T> handler) throws BrowserStackException {
+        final TransportHandle handle = acquireTransport();
+        HttpResponse response = null;
         try {
-            return execute().parseAs(responseClass);
+            response = execute();
+            return handler.handle(response);
         } catch (IOException e) {
             throw new BrowserStackException(e.getMessage());
+        } finally {
+            disconnectQuietly(response);
+            if (handle != null) {
+                handle.release();
+            }
         }
     }
 
-    public ObjectNode asJsonObject() throws BrowserStackException {
-        try {
-            return execute().parseAs(ObjectNode.class);
-        } catch (IOException e) {
-            throw new BrowserStackException(e.getMessage());
+    /**
+     * Registers this request on its transport. If the transport was retired before the request
+     * was sent, the request is rebuilt on the transport that replaced it.
+     */
+    private TransportHandle acquireTransport() throws BrowserStackException {
+        if (transport == null) {
+            return null;
         }
+
+        final TransportHandle handle = acquire(transport);
+        if (handle == null) {
+            throw new BrowserStackException("Client is closed");
+        }
+
+        if (handle != transport) {
+            try {
+                httpRequest = handle.getRequestFactory()
+                        .buildRequest(httpRequest.getRequestMethod(), httpRequest.getUrl(), httpRequest.getContent())
+                        .setHeaders(httpRequest.getHeaders())
+                        .setParser(httpRequest.getParser())
+                        .setConnectTimeout(httpRequest.getConnectTimeout())
+                        .setReadTimeout(httpRequest.getReadTimeout());
+            } catch (IOException e) {
+                handle.release();
+                throw new BrowserStackException(e);
+            }
+
+            transport = handle;
+        }
+
+        return handle;
     }
 
-    public ArrayNode asJsonArray() throws BrowserStackException {
-        try {
-            return execute().parseAs(ArrayNode.class);
-        } catch (IOException e) {
-            throw new BrowserStackException(e.getMessage());
+    /**
+     * @return the first transport from {@code handle} on that has not been retired, acquired, or
+     * null if the client was closed.
+     */
+    static TransportHandle acquire(TransportHandle handle) {
+        while (handle != null && !handle.acquire()) {
+            handle = handle.getSuccessor();
+        }
+
+        return handle;
+    }
+
+    private static void disconnectQuietly(HttpResponse response) {
+        if (response != null) {
+            try {
+                response.disconnect();
+            } catch (IOException e) {
+                // connection is released on a best-effort basis
+            }
         }
     }
 
+    public ObjectNode asJsonObject() throws BrowserStackException {
+        return asObject(ObjectNode.class);
+    }
+
+    public ArrayNode asJsonArray() throws BrowserStackException {
+        return asObject(ArrayNode.class);
+    }
+
     public String asString() throws BrowserStackException {
-        try {
-            return execute().parseAsString();
-        } catch (IOException e) {
-            throw new BrowserStackException(e.getMessage());
+        return coalesce(String.class, () -> send(HttpResponse::parseAsString));
+    }
+
+    private <T> T coalesce(Class<?> responseClass, RequestCoalescer.Call<T> call) throws BrowserStackException {
+        if (coalescer == null || !"GET".equals(httpRequest.getRequestMethod())) {
+            return call.call();
         }
+
+        final String key = httpRequest.getRequestMethod() + " " + httpRequest.getUrl().build()
+                + " " + httpRequest.getHeaders().getAccept() + " " + responseClass.getName();
+        return coalescer.execute(key, call);
+    }
+
+    private interface ResponseHandler<T> {
+        T handle(HttpResponse response) throws BrowserStackException, IOException;
     }
 
     public HttpRequest getHttpRequest() {
@@ -154,7 +364,78 @@ public class BrowserStackRequest {
     }
 
     private HttpResponse execute() throws BrowserStackException, IOException {
-        HttpResponse response = httpRequest.execute();
+        final RetryPolicy policy = retryPolicy;
+        if (policy == null || !retryable || policy.getMaxAttempts() <= 1
+                || !policy.isRetryableMethod(httpRequest.getRequestMethod())) {
+            return executeOnce();
+        }
+
+        long delay = 0;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return executeOnce();
+            } catch (HttpResponseException e) {
+                if (attempt >= policy.getMaxAttempts() || !policy.isRetryableStatus(e.getStatusCode())) {
+                    throw e;
+                }
+
+                final long retryAfter = RetryPolicy.retryAfter(e.getHeaders());
+                if (retryAfter > policy.getMaxRetryAfter() || !policy.tryAcquireRetry(getEndpoint())) {
+                    throw e;
+                }
+
+                delay = (retryAfter >= 0) ? retryAfter : policy.nextDelay(delay);
+            } catch (IOException e) {
+                if (attempt >= policy.getMaxAttempts() || !policy.tryAcquireRetry(getEndpoint())) {
+                    throw e;
+                }
+
+                delay = policy.nextDelay(delay);
+            }
+
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BrowserStackException(e);
+            }
+        }
+    }
+
+    private HttpResponse executeOnce() throws BrowserStackException, IOException {
+        final CircuitBreaker breaker = circuitBreaker;
+        final CircuitBreaker.Permit permit = (breaker != null) ? breaker.tryAcquire() : null;
+        if (breaker != null && permit == null) {
+            throw new BrowserStackCircuitOpenException("Circuit open for " + httpRequest.getUrl().getHost()
+                    + ", retry in " + breaker.getRemainingOpenTime() + " ms");
+        }
+
+        final HttpResponse response;
+        Boolean healthy = null;
+        try {
+            if (rateLimiter != null) {
+                rateLimiter.acquire(httpRequest.getRequestMethod());
+            }
+
+            response = httpRequest.execute();
+            healthy = true;
+        } catch (HttpResponseException e) {
+            healthy = e.getStatusCode() < 500;
+            throw e;
+        } catch (IOException e) {
+            healthy = false;
+            throw e;
+        } finally {
+            if (breaker != null) {
+                if (healthy == null) {
+                    breaker.release(permit);
+                } else if (healthy) {
+                    breaker.onSuccess(permit);
+                } else {
+                    breaker.onFailure(permit);
+                }
+            }
+        }
 
         if (response != null) {
             int status = response.getStatusCode();
@@ -170,4 +451,15 @@ public class BrowserStackRequest {
         return response;
     }
 
+    /**
+     * @return method and unexpanded route of this request, identifying its retry budget.
+     */
+    private String getEndpoint() {
+        if (route != null) {
+            return httpRequest.getRequestMethod() + " " + route.getTemplate();
+        }
+
+        return RetryPolicy.endpointOf(httpRequest.getRequestMethod(), httpRequest.getUrl().getRawPath());
+    }
+
 }
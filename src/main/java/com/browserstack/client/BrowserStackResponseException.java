@@ -1,5 +1,17 @@
 package com.browserstack.client;
 
+import com.browserstack.client.exception.BrowserStackException;
 
+/**
+ * Unchecked wrapper for a {@link BrowserStackException} raised where checked exceptions cannot
+ * be thrown, such as while iterating a lazily fetched {@link java.util.stream.Stream}.
+ */
 public class BrowserStackResponseException extends RuntimeException {
+
+    public BrowserStackResponseException() {
+    }
+
+    public BrowserStackResponseException(BrowserStackException e) {
+        super(e.getMessage(), e);
+    }
 }
@@ -0,0 +1,374 @@
+package com.browserstack.client;
+
+import com.browserstack.automate.exception.BuildNotFound;
+import com.browserstack.automate.model.Build;
+import com.browserstack.client.exception.BrowserStackException;
+import com.browserstack.client.util.Constants;
+import com.browserstack.client.util.TaskExecutors;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Waits for many builds to finish from a single background thread.
+ *
+ * <p>
+ * Builds are polled together: one {@link BrowserStackClientInterface#getBuilds(int)} call returns
+ * the status of every watched build among the most recent ones, and only builds missing from
+ * that page are fetched one by one. Each build is polled less often the longer it has been
+ * running without a change, so long builds cost few requests.
+ * </p>
+ *
+ * <pre>
+ * BuildWatcher watcher = new BuildWatcher(client);
+ * Build build = watcher.watch(buildId).get();
+ * </pre>
+ */
+public class BuildWatcher implements AutoCloseable {
+
+    private static final long DEFAULT_MIN_POLL_INTERVAL = 5000; // 5 seconds
+    private static final long DEFAULT_MAX_POLL_INTERVAL = 60000; // 1 minute
+    private static final long FIRST_POLL_DELAY = 100; // 100 milliseconds
+    private static final String STATUS_RUNNING = "running";
+
+    private final BrowserStackClientInterface client;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, Watched> watched = new ConcurrentHashMap<>();
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicBoolean firstPollPending = new AtomicBoolean();
+
+    private volatile long minPollInterval = DEFAULT_MIN_POLL_INTERVAL;
+
+    private volatile long maxPollInterval = DEFAULT_MAX_POLL_INTERVAL;
+
+    private volatile int batchLimit = Constants.Filter.MAX_LIMIT;
+
+    // only accessed on the scheduler thread
+    private ScheduledFuture<?> nextPoll;
+
+    /**
+     * @param client Client used to poll the builds.
+     */
+    public BuildWatcher(final BrowserStackClientInterface client) {
+        if (client == null) {
+            throw new IllegalArgumentException("Invalid client");
+        }
+
+        this.client = client;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                TaskExecutors.newThreadFactory("browserstack-build-watcher"));
+    }
+
+    /**
+     * @param minPollInterval Milliseconds between polls of a build that just changed status.
+     * @param maxPollInterval Longest interval between polls of a build.
+     * @return this watcher
+     */
+    public BuildWatcher setPollInterval(final long minPollInterval, final long maxPollInterval) {
+        if (minPollInterval <= 0 || maxPollInterval < minPollInterval) {
+            throw new IllegalArgumentException("Invalid pollInterval");
+        }
+
+        this.minPollInterval = minPollInterval;
+        this.maxPollInterval = maxPollInterval;
+        return this;
+    }
+
+    /**
+     * @param batchLimit Number of recent builds listed by each batched poll.
+     * @return this watcher
+     */
+    public BuildWatcher setBatchLimit(final int batchLimit) {
+        if (batchLimit <= 0 || batchLimit > Constants.Filter.MAX_LIMIT) {
+            throw new IllegalArgumentException("Invalid batchLimit");
+        }
+
+        this.batchLimit = batchLimit;
+        return this;
+    }
+
+    /**
+     * @param listener Notified of status changes of every watched build, on the watcher thread.
+     * @return this watcher
+     */
+    public BuildWatcher addListener(final Listener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Invalid listener");
+        }
+
+        listeners.add(listener);
+        return this;
+    }
+
+    public void removeListener(final Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts watching a build. Watching a build already watched returns the same future.
+     *
+     * @param buildId ID that uniquely identifies a build.
+     * @return completed with the build once it is no longer running, or exceptionally with
+     * {@link BuildNotFound} if it does not exist. Cancelling it stops watching the build.
+     */
+    public CompletableFuture<Build> watch(final String buildId) {
+        if (buildId == null || buildId.trim().length() == 0) {
+            throw new IllegalArgumentException("Invalid buildId");
+        }
+
+        final Watched[] created = new Watched[1];
+        final Watched build = watched.computeIfAbsent(buildId, id -> created[0] = new Watched(id, minPollInterval));
+        if (created[0] != null) {
+            build.future.whenComplete((result, e) -> watched.remove(buildId, build));
+            requestFirstPoll();
+        }
+
+        return build.future;
+    }
+
+    /**
+     * Stops watching a build, cancelling its future.
+     *
+     * @param buildId ID that uniquely identifies a build.
+     */
+    public void unwatch(final String buildId) {
+        final Watched build = watched.remove(buildId);
+        if (build != null) {
+            build.future.cancel(false);
+        }
+    }
+
+    /**
+     * @return number of builds being watched.
+     */
+    public int size() {
+        return watched.size();
+    }
+
+    /**
+     * Stops polling and cancels the futures of builds still being watched.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        for (String buildId : new ArrayList<>(watched.keySet())) {
+            unwatch(buildId);
+        }
+    }
+
+    /**
+     * Polls new builds shortly, so builds watched together are first polled in the same batch.
+     */
+    private void requestFirstPoll() {
+        if (!firstPollPending.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            scheduler.schedule(() -> {
+                firstPollPending.set(false);
+                pollDue();
+            }, FIRST_POLL_DELAY, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            firstPollPending.set(false);
+        }
+    }
+
+    private void pollDue() {
+        final long now = System.currentTimeMillis();
+        final List<Watched> due = new ArrayList<>();
+        for (Watched build : watched.values()) {
+            if (build.nextPoll <= now) {
+                due.add(build);
+            }
+        }
+
+        if (!due.isEmpty()) {
+            poll(due, now);
+        }
+
+        scheduleNext();
+    }
+
+    private void poll(final List<Watched> due, final long now) {
+        final Map<String, Build> recent = new HashMap<>();
+        if (due.size() > 1) {
+            try {
+                for (Build build : client.getBuilds(batchLimit)) {
+                    recent.put(build.getId(), build);
+                }
+            } catch (BrowserStackException | RuntimeException e) {
+                // fall back to fetching the builds one by one
+            }
+
+            // every watched build on the page is refreshed, not only the ones that were due
+            for (Watched build : watched.values()) {
+                final Build latest = recent.get(build.id);
+                if (latest != null) {
+                    update(build, latest, now);
+                }
+            }
+        }
+
+        for (Watched build : due) {
+            if (recent.containsKey(build.id) || build.future.isDone()) {
+                continue;
+            }
+
+            try {
+                update(build, client.getBuild(build.id), now);
+            } catch (BuildNotFound e) {
+                build.future.completeExceptionally(e);
+            } catch (BrowserStackException e) {
+                build.backOff(now, minPollInterval, maxPollInterval);
+                notifyError(build.id, e);
+            } catch (RuntimeException e) {
+                build.backOff(now, minPollInterval, maxPollInterval);
+                notifyError(build.id, new BrowserStackException(e.getMessage(), 0));
+            }
+        }
+    }
+
+    private void update(final Watched watchedBuild, final Build build, final long now) {
+        final String previous = watchedBuild.status;
+        final String status = build.getStatus();
+
+        if (status != null && !status.equalsIgnoreCase(previous)) {
+            watchedBuild.status = status;
+            watchedBuild.interval = minPollInterval;
+            watchedBuild.nextPoll = now + minPollInterval;
+
+            for (Listener listener : listeners) {
+                try {
+                    listener.onStatusChanged(build, previous);
+                } catch (RuntimeException e) {
+                    // one failing listener must not keep the others from being notified
+                }
+            }
+        } else {
+            watchedBuild.interval = Math.max(watchedBuild.interval, expectedInterval(build, now));
+            watchedBuild.backOff(now, minPollInterval, maxPollInterval);
+        }
+
+        if (status != null && !STATUS_RUNNING.equalsIgnoreCase(status)) {
+            for (Listener listener : listeners) {
+                try {
+                    listener.onFinished(build);
+                } catch (RuntimeException e) {
+                    // one failing listener must not keep the others from being notified
+                }
+            }
+
+            watchedBuild.future.complete(build);
+        }
+    }
+
+    /**
+     * A build that has been running for a while is likely to keep running for a while, so it is
+     * polled at about a tenth of its age.
+     */
+    private long expectedInterval(final Build build, final long now) {
+        long age = build.getDuration() * 1000L;
+        final long created = PurgePolicy.parseTime(build.getCreatedAt());
+        if (created > 0 && now > created) {
+            age = Math.max(age, now - created);
+        }
+
+        return Math.min(maxPollInterval, Math.max(minPollInterval, age / 10));
+    }
+
+    private void notifyError(final String buildId, final BrowserStackException e) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onError(buildId, e);
+            } catch (RuntimeException re) {
+                // one failing listener must not keep the others from being notified
+            }
+        }
+    }
+
+    private void scheduleNext() {
+        if (nextPoll != null) {
+            nextPoll.cancel(false);
+            nextPoll = null;
+        }
+
+        long next = Long.MAX_VALUE;
+        for (Watched build : watched.values()) {
+            next = Math.min(next, build.nextPoll);
+        }
+
+        if (next == Long.MAX_VALUE) {
+            return;
+        }
+
+        try {
+            nextPoll = scheduler.schedule(this::pollDue, Math.max(0, next - System.currentTimeMillis()),
+                    TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // closed
+        }
+    }
+
+    /**
+     * Changes of the status of watched builds. Methods are called on the watcher thread and
+     * should return quickly.
+     */
+    public interface Listener {
+
+        /**
+         * @param build          Build as last polled.
+         * @param previousStatus Status before the change, or null when the build is first polled.
+         */
+        default void onStatusChanged(Build build, String previousStatus) {
+        }
+
+        /**
+         * @param build Build which is no longer running.
+         */
+        default void onFinished(Build build) {
+        }
+
+        /**
+         * @param buildId ID of the build which could not be polled. It is polled again later.
+         * @param e       Cause of the failure.
+         */
+        default void onError(String buildId, BrowserStackException e) {
+        }
+    }
+
+    private static final class Watched {
+        private final String id;
+        private final CompletableFuture<Build> future = new CompletableFuture<>();
+
+        // only accessed on the scheduler thread, apart from the initial values
+        private String status;
+        private long interval;
+        private long nextPoll;
+
+        private Watched(final String id, final long interval) {
+            this.id = id;
+            this.interval = interval;
+        }
+
+        private void backOff(final long now, final long minInterval, final long maxInterval) {
+            interval = Math.min(maxInterval, Math.max(minInterval, interval + interval / 2));
+            nextPoll = now + interval;
+        }
+    }
+}
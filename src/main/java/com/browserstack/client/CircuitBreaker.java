@@ -0,0 +1,193 @@
+package com.browserstack.client;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stops sending requests to an endpoint that keeps failing, so callers fail fast instead of
+ * each waiting out a full socket timeout.
+ *
+ * <p>
+ * The circuit starts closed. After a number of consecutive failures (connection errors or 5xx
+ * responses) it opens, and requests are rejected without being sent. Once the open time has
+ * passed it becomes half-open and lets a single trial request through: the circuit closes again
+ * if that request succeeds, and re-opens if it fails.
+ * </p>
+ *
+ * <p>
+ * Every state change starts a new generation. Outcomes are reported against the permit a request
+ * was given, and outcomes of requests permitted in an earlier generation are ignored, so a slow
+ * request finishing late cannot close an open circuit or end another request's trial.
+ * </p>
+ */
+public class CircuitBreaker {
+
+    private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    private static final long DEFAULT_OPEN_TIME = 30000; // 30 seconds
+
+    private static final Map<String, CircuitBreaker> SHARED_BREAKERS = new ConcurrentHashMap<>();
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openTime;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long generation;
+
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_TIME);
+    }
+
+    /**
+     * @param failureThreshold Consecutive failures which open the circuit.
+     * @param openTime         Milliseconds the circuit stays open before a trial request is allowed.
+     */
+    public CircuitBreaker(final int failureThreshold, final long openTime) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Invalid failureThreshold");
+        }
+
+        if (openTime < 0) {
+            throw new IllegalArgumentException("Invalid openTime");
+        }
+
+        this.failureThreshold = failureThreshold;
+        this.openTime = openTime;
+    }
+
+    /**
+     * Returns the breaker shared by every client in this JVM talking to the same base URL,
+     * creating it with the default settings if needed.
+     *
+     * @param baseUrl API base URL.
+     * @return the shared breaker.
+     */
+    public static CircuitBreaker forBaseUrl(final String baseUrl) {
+        if (baseUrl == null) {
+            throw new IllegalArgumentException("Invalid baseUrl");
+        }
+
+        return SHARED_BREAKERS.computeIfAbsent(baseUrl, u -> new CircuitBreaker());
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && getRemainingOpenTime() == 0) {
+            return State.HALF_OPEN;
+        }
+
+        return state;
+    }
+
+    /**
+     * @return milliseconds until an open circuit lets a trial request through, or 0.
+     */
+    public synchronized long getRemainingOpenTime() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+
+        return Math.max(0, openedAt + openTime - System.currentTimeMillis());
+    }
+
+    /**
+     * Closes the circuit and forgets past failures.
+     */
+    public synchronized void reset() {
+        transition(State.CLOSED);
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * @return a permit if a request may be sent now, otherwise null. Every permit must be handed
+     * back through exactly one call to {@link #onSuccess(Permit)}, {@link #onFailure(Permit)} or
+     * {@link #release(Permit)}.
+     */
+    synchronized Permit tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return new Permit(generation, false);
+
+            case OPEN:
+                if (getRemainingOpenTime() > 0) {
+                    return null;
+                }
+
+                transition(State.HALF_OPEN);
+                trialInFlight = true;
+                return new Permit(generation, true);
+
+            default:
+                if (trialInFlight) {
+                    return null;
+                }
+
+                trialInFlight = true;
+                return new Permit(generation, true);
+        }
+    }
+
+    synchronized void onSuccess(final Permit permit) {
+        if (permit.generation != generation) {
+            return;
+        }
+
+        if (state == State.CLOSED) {
+            consecutiveFailures = 0;
+        } else if (permit.trial) {
+            reset();
+        }
+    }
+
+    synchronized void onFailure(final Permit permit) {
+        if (permit.generation != generation) {
+            return;
+        }
+
+        if (state == State.CLOSED) {
+            if (++consecutiveFailures >= failureThreshold) {
+                open();
+            }
+        } else if (permit.trial) {
+            open();
+        }
+    }
+
+    /**
+     * Gives back a permit whose request was never sent.
+     */
+    synchronized void release(final Permit permit) {
+        if (permit.generation == generation && permit.trial) {
+            trialInFlight = false;
+        }
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openedAt = System.currentTimeMillis();
+    }
+
+    private void transition(final State next) {
+        state = next;
+        trialInFlight = false;
+        generation++;
+    }
+
+    /**
+     * Permission to send one request, valid for the generation it was issued in.
+     */
+    static final class Permit {
+        private final long generation;
+        private final boolean trial;
+
+        private Permit(final long generation, final boolean trial) {
+            this.generation = generation;
+            this.trial = trial;
+        }
+    }
+}
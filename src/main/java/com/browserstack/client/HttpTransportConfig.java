@@ -0,0 +1,254 @@
+package com.browserstack.client;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import org.apache.http.Header;
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.DefaultProxyRoutePlanner;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool and timeout settings for the HTTP transport owned by a single
+ * {@link BrowserStackClient}.
+ *
+ * <p>
+ * Every client builds its own pooled transport from a copy of this configuration, so tuning
+ * or re-proxying one client never affects another client in the same JVM.
+ * </p>
+ */
+public class HttpTransportConfig {
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 200;
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    private static final long DEFAULT_IDLE_EVICTION_TIME = 60000; // 1 minute
+    private static final long DEFAULT_KEEP_ALIVE_TIME = 30000; // 30 seconds
+    private static final int DEFAULT_CONNECT_TIMEOUT = 20000; // 20 seconds
+    private static final int DEFAULT_READ_TIMEOUT = 20000; // 20 seconds
+
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+    private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+    private long idleEvictionTime = DEFAULT_IDLE_EVICTION_TIME;
+    private long keepAliveTime = DEFAULT_KEEP_ALIVE_TIME;
+    private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private int readTimeout = DEFAULT_READ_TIMEOUT;
+
+    private String proxyHost;
+    private int proxyPort;
+    private String proxyUsername;
+    private String proxyPassword;
+
+    private HttpTransport transport;
+
+    public HttpTransportConfig() {
+    }
+
+    public HttpTransportConfig(final HttpTransportConfig config) {
+        this.maxConnections = config.maxConnections;
+        this.maxConnectionsPerRoute = config.maxConnectionsPerRoute;
+        this.idleEvictionTime = config.idleEvictionTime;
+        this.keepAliveTime = config.keepAliveTime;
+        this.connectTimeout = config.connectTimeout;
+        this.readTimeout = config.readTimeout;
+        this.proxyHost = config.proxyHost;
+        this.proxyPort = config.proxyPort;
+        this.proxyUsername = config.proxyUsername;
+        this.proxyPassword = config.proxyPassword;
+        this.transport = config.transport;
+    }
+
+    /**
+     * @param maxConnections Maximum number of pooled connections across all routes.
+     * @return this configuration
+     */
+    public HttpTransportConfig setMaxConnections(final int maxConnections) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("Invalid maxConnections");
+        }
+
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    /**
+     * @param maxConnectionsPerRoute Maximum number of pooled connections to a single host.
+     * @return this configuration
+     */
+    public HttpTransportConfig setMaxConnectionsPerRoute(final int maxConnectionsPerRoute) {
+        if (maxConnectionsPerRoute <= 0) {
+            throw new IllegalArgumentException("Invalid maxConnectionsPerRoute");
+        }
+
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        return this;
+    }
+
+    /**
+     * @param idleEvictionTime Milliseconds after which an idle pooled connection is closed.
+     *                         Zero disables background eviction.
+     * @return this configuration
+     */
+    public HttpTransportConfig setIdleEvictionTime(final long idleEvictionTime) {
+        if (idleEvictionTime < 0) {
+            throw new IllegalArgumentException("Invalid idleEvictionTime");
+        }
+
+        this.idleEvictionTime = idleEvictionTime;
+        return this;
+    }
+
+    /**
+     * @param keepAliveTime Milliseconds a connection is kept alive when the server does not
+     *                      send a Keep-Alive timeout of its own.
+     * @return this configuration
+     */
+    public HttpTransportConfig setKeepAliveTime(final long keepAliveTime) {
+        if (keepAliveTime < 0) {
+            throw new IllegalArgumentException("Invalid keepAliveTime");
+        }
+
+        this.keepAliveTime = keepAliveTime;
+        return this;
+    }
+
+    /**
+     * @param connectTimeout Connect timeout in milliseconds, 0 for an infinite timeout.
+     * @return this configuration
+     */
+    public HttpTransportConfig setConnectTimeout(final int connectTimeout) {
+        if (connectTimeout < 0) {
+            throw new IllegalArgumentException("Invalid connectTimeout");
+        }
+
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * @param readTimeout Read timeout in milliseconds, 0 for an infinite timeout.
+     * @return this configuration
+     */
+    public HttpTransportConfig setReadTimeout(final int readTimeout) {
+        if (readTimeout < 0) {
+            throw new IllegalArgumentException("Invalid readTimeout");
+        }
+
+        this.readTimeout = readTimeout;
+        return this;
+    }
+
+    /**
+     * Sets proxy configuration for requests
+     *
+     * @param proxyHost     Host of the proxy
+     * @param proxyPort     Port of the proxy
+     * @param proxyUsername Username of proxy
+     * @param proxyPassword password of the proxy
+     * @return this configuration
+     */
+    public HttpTransportConfig setProxy(final String proxyHost, final int proxyPort,
+                                        final String proxyUsername, final String proxyPassword) {
+        this.proxyHost = proxyHost;
+        this.proxyPort = proxyPort;
+        this.proxyUsername = proxyUsername;
+        this.proxyPassword = proxyPassword;
+        return this;
+    }
+
+    /**
+     * Sends requests through the given transport instead of a pooled transport built from this
+     * configuration, for example a {@code MockHttpTransport} in tests. Pool and proxy settings
+     * then do not apply, and the client never shuts the transport down.
+     *
+     * @param transport Transport to use, or null to build a pooled transport.
+     * @return this configuration
+     */
+    public HttpTransportConfig setTransport(final HttpTransport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    public HttpTransport getTransport() {
+        return transport;
+    }
+
+    boolean hasProxy() {
+        return proxyHost != null && proxyPort != 0;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public long getIdleEvictionTime() {
+        return idleEvictionTime;
+    }
+
+    public long getKeepAliveTime() {
+        return keepAliveTime;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    HttpTransport newTransport() {
+        if (transport != null) {
+            return transport;
+        }
+
+        final HttpClientBuilder clientBuilder = ApacheHttpTransport.newDefaultHttpClientBuilder()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setKeepAliveStrategy((response, context) -> {
+                    // honour the server's Keep-Alive header when it sends one
+                    for (Header header : response.getHeaders("Keep-Alive")) {
+                        String value = header.getValue();
+                        int index = (value != null) ? value.indexOf("timeout=") : -1;
+                        if (index >= 0) {
+                            try {
+                                return Long.parseLong(value.substring(index + 8).split(",")[0].trim()) * 1000;
+                            } catch (NumberFormatException e) {
+                                // fall back to the configured keep-alive
+                            }
+                        }
+                    }
+
+                    return keepAliveTime;
+                });
+
+        if (idleEvictionTime > 0) {
+            clientBuilder.evictExpiredConnections()
+                    .evictIdleConnections(idleEvictionTime, TimeUnit.MILLISECONDS);
+        }
+
+        if (hasProxy()) {
+            final HttpHost proxy = new HttpHost(proxyHost, proxyPort);
+            clientBuilder.setRoutePlanner(new DefaultProxyRoutePlanner(proxy));
+
+            if (proxyUsername != null && proxyUsername.length() != 0 && proxyPassword != null && proxyPassword.length() != 0) {
+                final BasicCredentialsProvider basicCredentialsProvider = new BasicCredentialsProvider();
+                final AuthScope proxyAuthScope = new AuthScope(proxyHost, proxyPort);
+                UsernamePasswordCredentials proxyAuthentication =
+                        new UsernamePasswordCredentials(proxyUsername, proxyPassword);
+                basicCredentialsProvider.setCredentials(proxyAuthScope, proxyAuthentication);
+
+                clientBuilder.setDefaultCredentialsProvider(basicCredentialsProvider);
+            }
+        }
+
+        return new ApacheHttpTransport(clientBuilder.build());
+    }
+}
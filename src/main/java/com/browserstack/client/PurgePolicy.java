@@ -0,0 +1,223 @@
+package com.browserstack.client;
+
+import com.browserstack.automate.Automate.BuildStatus;
+import com.browserstack.automate.model.Build;
+import com.browserstack.client.exception.BrowserStackException;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Selects the builds removed by {@link BrowserStackClient#purgeBuilds(PurgePolicy)}.
+ *
+ * <p>
+ * A build is purged only if it matches every criterion that is set. For example, to delete
+ * failed builds older than 30 days:
+ * </p>
+ *
+ * <pre>
+ * client.purgeBuilds(new PurgePolicy()
+ *         .setOlderThan(30, TimeUnit.DAYS)
+ *         .setStatus(BuildStatus.FAILED));
+ * </pre>
+ */
+public class PurgePolicy {
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 5;
+
+    private long maxAge = -1;
+    private BuildStatus status;
+    private Pattern namePattern;
+    private Predicate<? super Build> filter;
+    private boolean dryRun;
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private Listener listener;
+
+    /**
+     * Matches builds created longer ago than the given age. Builds whose creation time is missing
+     * or invalid never match; they are reported to {@link Listener#onSkipped(Build)} instead.
+     *
+     * @param age  Minimum age.
+     * @param unit Unit of the age.
+     * @return this policy
+     */
+    public PurgePolicy setOlderThan(final long age, final TimeUnit unit) {
+        if (age < 0 || unit == null) {
+            throw new IllegalArgumentException("Invalid age");
+        }
+
+        this.maxAge = unit.toMillis(age);
+        return this;
+    }
+
+    /**
+     * @param status Matches only builds with this status. Also used to filter the listing.
+     * @return this policy
+     */
+    public PurgePolicy setStatus(final BuildStatus status) {
+        this.status = status;
+        return this;
+    }
+
+    /**
+     * @param namePattern Matches only builds whose whole name matches the pattern.
+     * @return this policy
+     */
+    public PurgePolicy setNamePattern(final Pattern namePattern) {
+        this.namePattern = namePattern;
+        return this;
+    }
+
+    /**
+     * @param filter Additional condition builds have to meet.
+     * @return this policy
+     */
+    public PurgePolicy setFilter(final Predicate<? super Build> filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    /**
+     * @param dryRun If true, matching builds are reported but not deleted.
+     * @return this policy
+     */
+    public PurgePolicy setDryRun(final boolean dryRun) {
+        this.dryRun = dryRun;
+        return this;
+    }
+
+    /**
+     * @param maxConcurrency Maximum number of deletions in flight at the same time.
+     * @return this policy
+     */
+    public PurgePolicy setMaxConcurrency(final int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Invalid maxConcurrency");
+        }
+
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * @param listener Receives progress of the purge, or null.
+     * @return this policy
+     */
+    public PurgePolicy setListener(final Listener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public BuildStatus getStatus() {
+        return status;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    Listener getListener() {
+        return listener;
+    }
+
+    /**
+     * @return whether the build is purged, kept, or skipped because the policy has a minimum
+     * age and the creation time of an otherwise matching build is missing or invalid.
+     */
+    Decision evaluate(final Build build, final long now) {
+        if (build == null || build.getId() == null) {
+            return Decision.KEEP;
+        }
+
+        if (status != null && !status.name().equalsIgnoreCase(build.getStatus())) {
+            return Decision.KEEP;
+        }
+
+        if (namePattern != null && (build.getName() == null || !namePattern.matcher(build.getName()).matches())) {
+            return Decision.KEEP;
+        }
+
+        boolean undated = false;
+        if (maxAge >= 0) {
+            final long created = parseTime(build.getCreatedAt());
+            if (created >= 0 && now - created < maxAge) {
+                return Decision.KEEP;
+            }
+
+            undated = created < 0;
+        }
+
+        if (filter != null && !filter.test(build)) {
+            return Decision.KEEP;
+        }
+
+        return undated ? Decision.SKIP : Decision.PURGE;
+    }
+
+    static long parseTime(final String value) {
+        if (value == null || value.isEmpty()) {
+            return -1;
+        }
+
+        try {
+            return Instant.parse(value).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // not in UTC, try with an offset
+        }
+
+        try {
+            return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    enum Decision {
+        PURGE, KEEP, SKIP
+    }
+
+    /**
+     * Progress of a purge. Methods may be called from several threads at once.
+     */
+    public interface Listener {
+
+        /**
+         * Called once the listing is complete, before anything is deleted.
+         *
+         * @param scanned Number of builds listed.
+         * @param matched Number of builds matching the policy.
+         */
+        default void onScanned(int scanned, int matched) {
+        }
+
+        /**
+         * Called while listing, for a build meeting every other criterion whose age cannot be
+         * checked because its creation time is missing or invalid. Such builds are never deleted.
+         *
+         * @param build Build which was skipped.
+         */
+        default void onSkipped(Build build) {
+        }
+
+        /**
+         * @param build Build which was deleted, or would be on a dry run.
+         */
+        default void onDeleted(Build build) {
+        }
+
+        /**
+         * @param build Build which could not be deleted.
+         * @param e     Cause of the failure.
+         */
+        default void onFailed(Build build, BrowserStackException e) {
+        }
+    }
+}
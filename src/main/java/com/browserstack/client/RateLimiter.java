@@ -0,0 +1,204 @@
+package com.browserstack.client;
+
+import com.browserstack.client.exception.BrowserStackException;
+import com.browserstack.client.exception.BrowserStackRateLimitException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket limiter keeping the requests of one or more clients under the REST API rate
+ * limit.
+ *
+ * <p>
+ * Reads (GET requests) and mutating calls draw from separate buckets, so a burst of status
+ * updates does not starve listing calls and vice versa. Each bucket refills continuously at its
+ * rate and holds at most one second worth of tokens unless configured otherwise.
+ * </p>
+ *
+ * <p>
+ * A limiter can be set on several clients. {@link #forUsername(String, double, double)} returns a
+ * limiter shared by every client of the same account in this JVM.
+ * </p>
+ */
+public class RateLimiter {
+
+    private static final Map<String, RateLimiter> SHARED_LIMITERS = new ConcurrentHashMap<>();
+
+    /**
+     * What a request does when no token is available.
+     */
+    public enum AcquireMode {
+        /**
+         * Waits until a token is available.
+         */
+        BLOCK,
+        /**
+         * Waits up to the configured timeout, then fails.
+         */
+        TIMEOUT,
+        /**
+         * Fails immediately.
+         */
+        FAIL_FAST
+    }
+
+    private final TokenBucket readBucket;
+    private final TokenBucket writeBucket;
+
+    private volatile AcquireMode acquireMode = AcquireMode.BLOCK;
+    private volatile long timeout;
+
+    /**
+     * @param readsPerSecond  Sustained rate of GET requests.
+     * @param writesPerSecond Sustained rate of POST, PUT and DELETE requests.
+     */
+    public RateLimiter(final double readsPerSecond, final double writesPerSecond) {
+        this(readsPerSecond, Math.max(1, readsPerSecond), writesPerSecond, Math.max(1, writesPerSecond));
+    }
+
+    /**
+     * @param readsPerSecond  Sustained rate of GET requests.
+     * @param readBurst       Largest number of GET requests sent back to back after a quiet period.
+     * @param writesPerSecond Sustained rate of POST, PUT and DELETE requests.
+     * @param writeBurst      Largest number of mutating requests sent back to back after a quiet
+     *                        period.
+     */
+    public RateLimiter(final double readsPerSecond, final double readBurst,
+                       final double writesPerSecond, final double writeBurst) {
+        this.readBucket = new TokenBucket("read", readsPerSecond, readBurst);
+        this.writeBucket = new TokenBucket("write", writesPerSecond, writeBurst);
+    }
+
+    /**
+     * Returns the limiter shared by all clients of an account in this JVM, creating it with the
+     * given rates if it does not exist yet. Rates passed by later callers are ignored.
+     *
+     * @param username        Account username.
+     * @param readsPerSecond  Sustained rate of GET requests.
+     * @param writesPerSecond Sustained rate of POST, PUT and DELETE requests.
+     * @return the shared limiter.
+     */
+    public static RateLimiter forUsername(final String username, final double readsPerSecond,
+                                          final double writesPerSecond) {
+        if (username == null || username.trim().length() == 0) {
+            throw new IllegalArgumentException("Invalid username");
+        }
+
+        return SHARED_LIMITERS.computeIfAbsent(username.trim(),
+                u -> new RateLimiter(readsPerSecond, writesPerSecond));
+    }
+
+    /**
+     * @param acquireMode What a request does when its bucket is empty.
+     * @param timeout     Longest wait in milliseconds, used with {@link AcquireMode#TIMEOUT}.
+     * @return this limiter
+     */
+    public RateLimiter setAcquireMode(final AcquireMode acquireMode, final long timeout) {
+        if (acquireMode == null) {
+            throw new IllegalArgumentException("Invalid acquireMode");
+        }
+
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Invalid timeout");
+        }
+
+        this.acquireMode = acquireMode;
+        this.timeout = timeout;
+        return this;
+    }
+
+    public AcquireMode getAcquireMode() {
+        return acquireMode;
+    }
+
+    /**
+     * Takes a token for one request, waiting according to the acquire mode.
+     *
+     * @param method HTTP method of the request.
+     * @throws BrowserStackRateLimitException if no token could be taken in time.
+     * @throws BrowserStackException          if interrupted while waiting.
+     */
+    public void acquire(final String method) throws BrowserStackException {
+        final TokenBucket bucket = ("GET".equals(method) || "HEAD".equals(method)) ? readBucket : writeBucket;
+
+        final long maxWait;
+        switch (acquireMode) {
+            case FAIL_FAST:
+                maxWait = 0;
+                break;
+
+            case TIMEOUT:
+                maxWait = TimeUnit.MILLISECONDS.toNanos(timeout);
+                break;
+
+            default:
+                maxWait = Long.MAX_VALUE;
+        }
+
+        final long wait = bucket.reserve(maxWait);
+        if (wait < 0) {
+            throw new BrowserStackRateLimitException("Client-side rate limit exceeded for " + bucket.name + " requests");
+        }
+
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BrowserStackException(e);
+            }
+        }
+    }
+
+    private static class TokenBucket {
+        private final String name;
+        private final double tokensPerNano;
+        private final double capacity;
+
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        TokenBucket(final String name, final double tokensPerSecond, final double capacity) {
+            if (tokensPerSecond <= 0) {
+                throw new IllegalArgumentException("Invalid " + name + " rate");
+            }
+
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Invalid " + name + " burst");
+            }
+
+            this.name = name;
+            this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = capacity;
+            this.tokens = capacity;
+        }
+
+        /**
+         * Takes a token, possibly one that is only refilled in the future. Callers then wait for
+         * the returned time outside the lock, so waiters are served in the order they arrived.
+         *
+         * @return nanoseconds to wait before sending, or -1 if that would exceed maxWait and no
+         * token was taken.
+         */
+        synchronized long reserve(final long maxWait) {
+            final long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+
+            final long wait = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            if (wait > maxWait) {
+                return -1;
+            }
+
+            tokens -= 1;
+            return wait;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.browserstack.client;
+
+import com.browserstack.client.exception.BrowserStackException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Collapses identical requests that are in flight at the same time into a single call.
+ *
+ * <p>
+ * The first caller for a key performs the call; callers arriving before it completes wait for
+ * it and receive the same result, or the same exception. Nothing is cached once the call is
+ * done.
+ * </p>
+ */
+final class RequestCoalescer {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    <T> T execute(final String key, final Call<T> call) throws BrowserStackException {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        final CompletableFuture<Object> leader = inFlight.putIfAbsent(key, future);
+        if (leader != null) {
+            return (T) await(leader);
+        }
+
+        try {
+            T result = call.call();
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // followers must be released whatever the leader failed with, errors included
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private static Object await(final CompletableFuture<Object> future) throws BrowserStackException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BrowserStackException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof BrowserStackException) {
+                throw (BrowserStackException) cause;
+            }
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new BrowserStackException(e);
+        }
+    }
+
+    interface Call<T> {
+        T call() throws BrowserStackException;
+    }
+}
@@ -0,0 +1,336 @@
+package com.browserstack.client;
+
+import com.google.api.client.http.HttpHeaders;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed request is sent again, and how long to wait before doing so.
+ *
+ * <p>
+ * By default only idempotent requests (GET, PUT and DELETE) are retried, up to three attempts in
+ * total, when the connection fails or BrowserStack answers with 429, 502, 503 or 504. Waits use
+ * decorrelated jitter between the base and maximum delay, unless the response carries a
+ * {@code Retry-After} header. Each endpoint also has a retry budget, so a failing endpoint cannot
+ * multiply the request volume when many callers fail at once.
+ * </p>
+ */
+public class RetryPolicy {
+
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final long DEFAULT_BASE_DELAY = 200; // 200 milliseconds
+    private static final long DEFAULT_MAX_DELAY = 10000; // 10 seconds
+    private static final long DEFAULT_MAX_RETRY_AFTER = 60000; // 1 minute
+    private static final int DEFAULT_BUDGET_RETRIES = 50;
+    private static final long DEFAULT_BUDGET_WINDOW = 10000; // 10 seconds
+    private static final int MAX_BUDGETS = 256;
+    private static final String OVERFLOW_BUDGET = "*";
+    private static final Integer[] DEFAULT_STATUS_CODES = {429, 502, 503, 504};
+
+    // policies are shared by every request of a client, so settings may change while in use
+    private volatile int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private volatile long baseDelay = DEFAULT_BASE_DELAY;
+    private volatile long maxDelay = DEFAULT_MAX_DELAY;
+    private volatile long maxRetryAfter = DEFAULT_MAX_RETRY_AFTER;
+    private volatile boolean retryNonIdempotent;
+    private volatile Set<Integer> retryableStatusCodes =
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList(DEFAULT_STATUS_CODES)));
+
+    private volatile int budgetRetries = DEFAULT_BUDGET_RETRIES;
+    private volatile long budgetWindow = DEFAULT_BUDGET_WINDOW;
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+    public RetryPolicy() {
+    }
+
+    /**
+     * @return a policy which never retries.
+     */
+    public static RetryPolicy none() {
+        return new RetryPolicy().setMaxAttempts(1);
+    }
+
+    /**
+     * @param maxAttempts Total number of attempts per request, including the first one.
+     * @return this policy
+     */
+    public RetryPolicy setMaxAttempts(final int maxAttempts) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Invalid maxAttempts");
+        }
+
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * @param baseDelay Smallest wait between attempts, in milliseconds.
+     * @param maxDelay  Largest wait between attempts, in milliseconds.
+     * @return this policy
+     */
+    public synchronized RetryPolicy setDelay(final long baseDelay, final long maxDelay) {
+        if (baseDelay < 0) {
+            throw new IllegalArgumentException("Invalid baseDelay");
+        }
+
+        if (maxDelay < baseDelay) {
+            throw new IllegalArgumentException("Invalid maxDelay");
+        }
+
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        return this;
+    }
+
+    /**
+     * @param maxRetryAfter Longest {@code Retry-After} wait to honour, in milliseconds. Responses
+     *                      asking for a longer wait are not retried.
+     * @return this policy
+     */
+    public RetryPolicy setMaxRetryAfter(final long maxRetryAfter) {
+        if (maxRetryAfter < 0) {
+            throw new IllegalArgumentException("Invalid maxRetryAfter");
+        }
+
+        this.maxRetryAfter = maxRetryAfter;
+        return this;
+    }
+
+    /**
+     * @param statusCodes HTTP status codes which are retried.
+     * @return this policy
+     */
+    public RetryPolicy setRetryableStatusCodes(final Integer... statusCodes) {
+        if (statusCodes == null) {
+            throw new IllegalArgumentException("Invalid statusCodes");
+        }
+
+        this.retryableStatusCodes = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(statusCodes)));
+        return this;
+    }
+
+    /**
+     * @param retryNonIdempotent Whether POST requests are retried as well. Off by default, since a
+     *                           failed POST may still have been applied by the server.
+     * @return this policy
+     */
+    public RetryPolicy setRetryNonIdempotent(final boolean retryNonIdempotent) {
+        this.retryNonIdempotent = retryNonIdempotent;
+        return this;
+    }
+
+    /**
+     * Limits how often a single endpoint, such as {@code PUT /sessions/{sessionId}.json}, may be
+     * retried. Once the budget is spent, failures are reported without retrying until the window
+     * ends.
+     *
+     * @param maxRetries Retries allowed per endpoint within a window.
+     * @param window     Length of the window in milliseconds.
+     * @return this policy
+     */
+    public synchronized RetryPolicy setRetryBudget(final int maxRetries, final long window) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Invalid maxRetries");
+        }
+
+        if (window <= 0) {
+            throw new IllegalArgumentException("Invalid window");
+        }
+
+        this.budgetRetries = maxRetries;
+        this.budgetWindow = window;
+        this.budgets.clear();
+        return this;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getBaseDelay() {
+        return baseDelay;
+    }
+
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    public long getMaxRetryAfter() {
+        return maxRetryAfter;
+    }
+
+    public Set<Integer> getRetryableStatusCodes() {
+        return retryableStatusCodes;
+    }
+
+    public boolean isRetryNonIdempotent() {
+        return retryNonIdempotent;
+    }
+
+    boolean isRetryableMethod(final String method) {
+        return retryNonIdempotent || "GET".equals(method) || "PUT".equals(method)
+                || "DELETE".equals(method) || "HEAD".equals(method);
+    }
+
+    boolean isRetryableStatus(final int statusCode) {
+        return retryableStatusCodes.contains(statusCode);
+    }
+
+    /**
+     * Takes one retry from the budget of an endpoint. At most {@value #MAX_BUDGETS} endpoints
+     * have a budget of their own; budgets whose window has ended are dropped to make room, and
+     * endpoints beyond that share a single budget.
+     *
+     * @param endpoint Method and route of the request.
+     * @return true if the request may be retried.
+     */
+    boolean tryAcquireRetry(final String endpoint) {
+        RetryBudget budget = budgets.get(endpoint);
+        if (budget == null) {
+            if (budgets.size() >= MAX_BUDGETS) {
+                purgeBudgets();
+            }
+
+            budget = budgets.computeIfAbsent((budgets.size() < MAX_BUDGETS) ? endpoint : OVERFLOW_BUDGET,
+                    e -> new RetryBudget());
+        }
+
+        return budget.tryAcquire();
+    }
+
+    int getBudgetCount() {
+        return budgets.size();
+    }
+
+    private void purgeBudgets() {
+        final long now = System.currentTimeMillis();
+        budgets.values().removeIf(budget -> budget.isExpired(now));
+    }
+
+    /**
+     * Identifies the retry budget of a request that was not created from a route template, such
+     * as a request for a URL returned by the API. Path segments holding an id, recognised by
+     * containing a digit, are replaced by {@code {id}} so that all requests for the same kind of
+     * resource share one budget.
+     *
+     * @param method  HTTP method of the request.
+     * @param rawPath Path of the request URL.
+     * @return method and normalised path.
+     */
+    static String endpointOf(final String method, final String rawPath) {
+        final StringBuilder sb = new StringBuilder(method).append(' ');
+        if (rawPath == null) {
+            return sb.toString();
+        }
+
+        int start = 0;
+        while (start <= rawPath.length()) {
+            int end = rawPath.indexOf('/', start);
+            if (end < 0) {
+                end = rawPath.length();
+            }
+
+            final String segment = rawPath.substring(start, end);
+            if (containsDigit(segment)) {
+                // keep an extension such as .json, it tells endpoints apart
+                final int dot = segment.lastIndexOf('.');
+                final String extension = (dot > 0) ? segment.substring(dot) : "";
+                sb.append("{id}").append(containsDigit(extension) ? "" : extension);
+            } else {
+                sb.append(segment);
+            }
+
+            if (end < rawPath.length()) {
+                sb.append('/');
+            }
+
+            start = end + 1;
+        }
+
+        return sb.toString();
+    }
+
+    private static boolean containsDigit(final String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.isDigit(segment.charAt(i))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Computes the next wait using decorrelated jitter: a random value between the base delay
+     * and three times the previous wait, capped at the maximum delay.
+     *
+     * @param previousDelay Previous wait in milliseconds, or 0 before the first retry.
+     * @return wait before the next attempt, in milliseconds.
+     */
+    long nextDelay(final long previousDelay) {
+        final long upper = Math.min(maxDelay, Math.max(baseDelay, previousDelay) * 3);
+        if (upper <= baseDelay) {
+            return baseDelay;
+        }
+
+        return ThreadLocalRandom.current().nextLong(baseDelay, upper + 1);
+    }
+
+    /**
+     * @param headers Response headers.
+     * @return the wait requested by a {@code Retry-After} header in milliseconds, or -1 if the
+     * header is missing or invalid.
+     */
+    static long retryAfter(final HttpHeaders headers) {
+        final String value = (headers != null) ? headers.getFirstHeaderStringValue("Retry-After") : null;
+        if (value == null || value.trim().length() == 0) {
+            return -1;
+        }
+
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            // not delta-seconds, try an HTTP date
+        }
+
+        try {
+            final ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private class RetryBudget {
+        private long windowStart = System.currentTimeMillis();
+        private int used;
+
+        synchronized boolean isExpired(final long now) {
+            return now - windowStart >= budgetWindow || now < windowStart;
+        }
+
+        synchronized boolean tryAcquire() {
+            final long now = System.currentTimeMillis();
+            if (now - windowStart >= budgetWindow || now < windowStart) {
+                windowStart = now;
+                used = 0;
+            }
+
+            if (used >= budgetRetries) {
+                return false;
+            }
+
+            used++;
+            return true;
+        }
+    }
+}
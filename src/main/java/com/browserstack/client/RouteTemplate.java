@@ -0,0 +1,177 @@
+package com.browserstack.client;
+
+import com.google.api.client.http.GenericUrl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A URL with {@code {name}} placeholders in its path, such as
+ * {@code https://api.browserstack.com/automate/builds/{buildId}/sessions.json}, parsed once into
+ * literal and variable segments.
+ *
+ * <p>
+ * Requests start from a copy of the pre-parsed URL and only rebuild the path parts that hold a
+ * placeholder, so expanding a route needs neither regular expressions nor re-parsing the URL.
+ * </p>
+ */
+final class RouteTemplate {
+
+    private final String template;
+
+    private final GenericUrl prototype;
+
+    private final String[] names;
+
+    /**
+     * Index of each path part containing a placeholder.
+     */
+    private final int[] partIndexes;
+
+    /**
+     * Segments of each such path part: a String for literal text or an Integer index into names.
+     */
+    private final Object[][] partSegments;
+
+    private RouteTemplate(final String template, final GenericUrl prototype, final String[] names, final int[] partIndexes,
+                          final Object[][] partSegments) {
+        this.template = template;
+        this.prototype = prototype;
+        this.names = names;
+        this.partIndexes = partIndexes;
+        this.partSegments = partSegments;
+    }
+
+    static RouteTemplate compile(final String url) {
+        final GenericUrl prototype = new GenericUrl(url);
+        final List<String> pathParts = prototype.getPathParts();
+        final List<String> names = new ArrayList<>();
+        final List<Integer> partIndexes = new ArrayList<>();
+        final List<Object[]> partSegments = new ArrayList<>();
+
+        if (pathParts != null) {
+            for (int i = 0; i < pathParts.size(); i++) {
+                final String part = pathParts.get(i);
+                if (part.indexOf('{') < 0) {
+                    continue;
+                }
+
+                final List<Object> segments = new ArrayList<>();
+                int start = 0;
+                int open;
+                while ((open = part.indexOf('{', start)) >= 0) {
+                    final int close = part.indexOf('}', open);
+                    if (close < 0) {
+                        break;
+                    }
+
+                    if (open > start) {
+                        segments.add(part.substring(start, open));
+                    }
+
+                    final String name = part.substring(open + 1, close);
+                    int nameIndex = names.indexOf(name);
+                    if (nameIndex < 0) {
+                        nameIndex = names.size();
+                        names.add(name);
+                    }
+
+                    segments.add(nameIndex);
+                    start = close + 1;
+                }
+
+                if (start < part.length()) {
+                    segments.add(part.substring(start));
+                }
+
+                partIndexes.add(i);
+                partSegments.add(segments.toArray());
+            }
+        }
+
+        final int[] indexes = new int[partIndexes.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = partIndexes.get(i);
+        }
+
+        return new RouteTemplate(url, prototype, names.toArray(new String[0]), indexes,
+                partSegments.toArray(new Object[0][]));
+    }
+
+    /**
+     * @return a fresh copy of the URL with its placeholders unexpanded.
+     */
+    GenericUrl newUrl() {
+        return prototype.clone();
+    }
+
+    /**
+     * @return the URL as given, with its placeholders.
+     */
+    String getTemplate() {
+        return template;
+    }
+
+    int variableCount() {
+        return names.length;
+    }
+
+    /**
+     * @param name Placeholder name, without braces.
+     * @return index of the placeholder, or -1 if the route does not have it.
+     */
+    int indexOf(final String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Rewrites the path parts of {@code url} that contain the given placeholder. Placeholders
+     * without a value yet are left as {@code {name}}.
+     *
+     * @param url       URL created by {@link #newUrl()}.
+     * @param nameIndex Index of the placeholder that was just bound.
+     * @param values    Unescaped values by placeholder index; escaping happens when the URL is built.
+     */
+    void expand(final GenericUrl url, final int nameIndex, final String[] values) {
+        final List<String> pathParts = url.getPathParts();
+
+        for (int i = 0; i < partIndexes.length; i++) {
+            final Object[] segments = partSegments[i];
+            if (!containsVariable(segments, nameIndex)) {
+                continue;
+            }
+
+            final StringBuilder sb = new StringBuilder();
+            for (Object segment : segments) {
+                if (segment instanceof String) {
+                    sb.append((String) segment);
+                } else {
+                    final int index = (Integer) segment;
+                    if (values[index] != null) {
+                        sb.append(values[index]);
+                    } else {
+                        sb.append('{').append(names[index]).append('}');
+                    }
+                }
+            }
+
+            pathParts.set(partIndexes[i], sb.toString());
+        }
+    }
+
+    private static boolean containsVariable(final Object[] segments, final int nameIndex) {
+        for (Object segment : segments) {
+            if (segment instanceof Integer && (Integer) segment == nameIndex) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
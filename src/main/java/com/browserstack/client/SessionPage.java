@@ -0,0 +1,31 @@
+package com.browserstack.client;
+
+import com.browserstack.automate.model.Session;
+import com.browserstack.client.util.Constants;
+
+import java.util.List;
+
+/**
+ * One offset page of a build's sessions.
+ */
+final class SessionPage {
+
+    final List<Session> sessions;
+
+    /**
+     * Number of nodes in the response, including nodes without a session.
+     */
+    final int nodeCount;
+
+    SessionPage(final List<Session> sessions, final int nodeCount) {
+        this.sessions = sessions;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * @return true if the page was short, meaning the build has no sessions past it.
+     */
+    boolean isLast() {
+        return nodeCount < Constants.Filter.MAX_LIMIT;
+    }
+}
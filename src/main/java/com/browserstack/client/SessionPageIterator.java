@@ -0,0 +1,124 @@
+package com.browserstack.client;
+
+import com.browserstack.automate.Automate.BuildStatus;
+import com.browserstack.automate.model.Session;
+import com.browserstack.client.exception.BrowserStackException;
+import com.browserstack.client.util.Constants;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Iterates over the sessions of a build one offset page at a time.
+ *
+ * <p>
+ * Nothing is fetched until the first call to {@link #hasNext()}. While a page is being consumed
+ * the next one is requested in the background, so at most two pages are held in memory no matter
+ * how many sessions the build has.
+ * </p>
+ */
+class SessionPageIterator implements Iterator<Session>, AutoCloseable {
+
+    private final BrowserStackClient client;
+    private final String buildId;
+    private final BuildStatus status;
+    private final ExecutorService executor;
+
+    private Iterator<Session> currentPage = Collections.emptyIterator();
+    private Future<SessionPage> nextPage;
+    private int nextOffset;
+    private boolean exhausted;
+    private boolean closed;
+
+    SessionPageIterator(final BrowserStackClient client, final String buildId, final BuildStatus status,
+                        final ExecutorService executor) {
+        this.client = client;
+        this.buildId = buildId;
+        this.status = status;
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentPage.hasNext()) {
+            if (exhausted || closed) {
+                return false;
+            }
+
+            final SessionPage page = takeNextPage();
+            if (page.isLast()) {
+                exhausted = true;
+            } else {
+                prefetch();
+            }
+
+            currentPage = page.sessions.iterator();
+        }
+
+        return true;
+    }
+
+    @Override
+    public Session next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return currentPage.next();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        currentPage = Collections.emptyIterator();
+
+        if (nextPage != null) {
+            nextPage.cancel(true);
+            nextPage = null;
+        }
+    }
+
+    private void prefetch() {
+        final int offset = nextOffset;
+        nextOffset += Constants.Filter.MAX_LIMIT;
+        nextPage = executor.submit(() -> fetchPage(offset));
+    }
+
+    private SessionPage takeNextPage() {
+        try {
+            if (nextPage == null) {
+                final int offset = nextOffset;
+                nextOffset += Constants.Filter.MAX_LIMIT;
+                return fetchPage(offset);
+            }
+
+            final Future<SessionPage> page = nextPage;
+            nextPage = null;
+            return page.get();
+        } catch (BrowserStackException e) {
+            throw new BrowserStackResponseException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BrowserStackResponseException(new BrowserStackException(e));
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof BrowserStackException) {
+                throw new BrowserStackResponseException((BrowserStackException) cause);
+            }
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new BrowserStackResponseException(new BrowserStackException(e));
+        }
+    }
+
+    private SessionPage fetchPage(final int offset) throws BrowserStackException {
+        return client.getSessionPage(buildId, status, Constants.Filter.MAX_LIMIT, offset);
+    }
+}
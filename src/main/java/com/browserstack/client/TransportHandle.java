@@ -0,0 +1,117 @@
+package com.browserstack.client;
+
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpTransport;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The transport of a client together with the number of requests currently using it.
+ *
+ * <p>
+ * When a client switches to a new transport, the previous one is retired: requests still running
+ * on it finish normally and it is shut down once the last of them is done, while requests that
+ * had not been sent yet move on to its successor.
+ * </p>
+ */
+final class TransportHandle {
+
+    private final HttpTransport transport;
+
+    private final HttpRequestFactory requestFactory;
+
+    private final boolean owned;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicBoolean shutdown = new AtomicBoolean();
+
+    private volatile boolean retired;
+
+    private volatile TransportHandle successor;
+
+    /**
+     * @param transport   Transport to send requests with.
+     * @param initializer Applied to every request built from the transport.
+     * @param owned       Whether the transport is shut down once retired.
+     */
+    TransportHandle(final HttpTransport transport, final HttpRequestInitializer initializer, final boolean owned) {
+        this.transport = transport;
+        this.requestFactory = transport.createRequestFactory(initializer);
+        this.owned = owned;
+    }
+
+    HttpTransport getTransport() {
+        return transport;
+    }
+
+    HttpRequestFactory getRequestFactory() {
+        return requestFactory;
+    }
+
+    /**
+     * Registers a request about to be sent. Every successful call must be paired with
+     * {@link #release()}.
+     *
+     * @return false if the transport has been retired and must not be used.
+     */
+    boolean acquire() {
+        inFlight.incrementAndGet();
+        if (retired) {
+            release();
+            return false;
+        }
+
+        return true;
+    }
+
+    void release() {
+        if (inFlight.decrementAndGet() == 0 && retired) {
+            shutdown();
+        }
+    }
+
+    /**
+     * Stops handing out this transport, and shuts it down once no request is using it.
+     *
+     * @param successor Transport replacing this one, or null if the client is closed.
+     */
+    void retire(final TransportHandle successor) {
+        this.successor = successor;
+        this.retired = true;
+        if (inFlight.get() == 0) {
+            shutdown();
+        }
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
+    TransportHandle getSuccessor() {
+        return successor;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    boolean isShutdown() {
+        return shutdown.get();
+    }
+
+    private void shutdown() {
+        if (!owned || !shutdown.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            transport.shutdown();
+        } catch (IOException e) {
+            // connections are released on a best-effort basis
+        }
+    }
+}
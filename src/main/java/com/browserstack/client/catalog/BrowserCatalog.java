@@ -0,0 +1,470 @@
+package com.browserstack.client.catalog;
+
+import com.browserstack.client.model.Browser;
+import com.browserstack.client.model.BrowserListing;
+import com.browserstack.client.model.DesktopPlatform;
+import com.browserstack.client.model.Device;
+import com.browserstack.client.model.MobilePlatform;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, indexed view of the browsers and devices offered by BrowserStack, for answering
+ * capability lookups such as "all iOS 17 devices" without scanning the listing.
+ *
+ * <p>
+ * Each attribute is stored as a dictionary-encoded column: every distinct value is kept once and
+ * rows refer to it by code. For each value a bit set records the rows holding it, so a query is
+ * a union of bit sets per attribute followed by an intersection across attributes. Values are
+ * matched ignoring case.
+ * </p>
+ *
+ * <pre>
+ * List&lt;CatalogEntry&gt; devices = catalog.query().os("ios").osVersion("17").list();
+ * List&lt;CatalogEntry&gt; chrome = catalog.query().os("Windows").osVersion("11").browser("chrome")
+ *         .latest(Attribute.BROWSER_VERSION, 3).list();
+ * </pre>
+ */
+public class BrowserCatalog {
+
+    /**
+     * Indexed attributes of a catalogue entry.
+     */
+    public enum Attribute {
+        OS, OS_VERSION, BROWSER, BROWSER_VERSION, DEVICE
+    }
+
+    private static final Attribute[] ATTRIBUTES = Attribute.values();
+
+    private static final String LATEST = "latest";
+
+    private final List<CatalogEntry> entries;
+
+    private final Column[] columns = new Column[ATTRIBUTES.length];
+
+    private final VersionIndex osVersions;
+
+    private final VersionIndex browserVersions;
+
+    private BrowserCatalog(final List<CatalogEntry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+
+        for (Attribute attribute : ATTRIBUTES) {
+            columns[attribute.ordinal()] = new Column(entries, attribute);
+        }
+
+        this.osVersions = columns[Attribute.OS_VERSION.ordinal()].newVersionIndex();
+        this.browserVersions = columns[Attribute.BROWSER_VERSION.ordinal()].newVersionIndex();
+    }
+
+    /**
+     * Builds a catalogue from the flat list returned by the Automate {@code /browsers.json}
+     * endpoint.
+     *
+     * @param browsers Browsers and devices.
+     * @return the catalogue.
+     */
+    public static BrowserCatalog of(final List<Browser> browsers) {
+        if (browsers == null) {
+            throw new IllegalArgumentException("Invalid browsers");
+        }
+
+        final Interner interner = new Interner();
+        final List<CatalogEntry> entries = new ArrayList<>(browsers.size());
+        for (Browser browser : browsers) {
+            if (browser != null) {
+                entries.add(interner.entry(browser.getOs(), browser.getOsVersion(), browser.getBrowser(),
+                        browser.getBrowserVersion(), browser.getDevice(), browser.getDisplayName(), browser));
+            }
+        }
+
+        return new BrowserCatalog(entries);
+    }
+
+    /**
+     * Builds a catalogue from a product listing, with one entry per desktop browser and per
+     * mobile device.
+     *
+     * @param listing Listing of desktop and mobile platforms.
+     * @return the catalogue.
+     */
+    public static BrowserCatalog of(final BrowserListing listing) {
+        if (listing == null) {
+            throw new IllegalArgumentException("Invalid listing");
+        }
+
+        final Interner interner = new Interner();
+        final List<CatalogEntry> entries = new ArrayList<>();
+
+        if (listing.getDesktopPlatforms() != null) {
+            for (DesktopPlatform platform : listing.getDesktopPlatforms()) {
+                if (platform == null || platform.getBrowsers() == null) {
+                    continue;
+                }
+
+                for (Browser browser : platform.getBrowsers()) {
+                    if (browser != null) {
+                        entries.add(interner.entry(
+                                (browser.getOs() != null) ? browser.getOs() : platform.getOs(),
+                                (browser.getOsVersion() != null) ? browser.getOsVersion() : platform.getOsVersion(),
+                                browser.getBrowser(), browser.getBrowserVersion(), browser.getDevice(),
+                                browser.getDisplayName(), browser));
+                    }
+                }
+            }
+        }
+
+        if (listing.getMobilePlatforms() != null) {
+            for (MobilePlatform platform : listing.getMobilePlatforms()) {
+                if (platform == null || platform.getDevices() == null) {
+                    continue;
+                }
+
+                for (Device device : platform.getDevices()) {
+                    if (device != null) {
+                        entries.add(interner.entry(platform.getOs(), device.getOsVersion(), null, null,
+                                device.getDevice(), device.getDisplayName(), device));
+                    }
+                }
+            }
+        }
+
+        return new BrowserCatalog(entries);
+    }
+
+    /**
+     * @return every entry, in listing order.
+     */
+    public List<CatalogEntry> getEntries() {
+        return entries;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @param attribute Attribute to list.
+     * @return the distinct values of the attribute, in order of first appearance.
+     */
+    public Set<String> values(final Attribute attribute) {
+        return columns[attribute.ordinal()].values();
+    }
+
+    /**
+     * @param attribute {@link Attribute#OS_VERSION} or {@link Attribute#BROWSER_VERSION}.
+     * @return the sorted index of the numeric values of the attribute.
+     */
+    public VersionIndex versions(final Attribute attribute) {
+        if (attribute == Attribute.OS_VERSION) {
+            return osVersions;
+        }
+
+        if (attribute == Attribute.BROWSER_VERSION) {
+            return browserVersions;
+        }
+
+        throw new IllegalArgumentException("Invalid attribute");
+    }
+
+    /**
+     * @return a query matching every entry, to be narrowed down.
+     */
+    public Query query() {
+        return new Query();
+    }
+
+    /**
+     * Rows matching any of the given values of an attribute. A null value matches entries
+     * without the attribute.
+     */
+    BitSet rows(final Attribute attribute, final String... values) {
+        final Column column = columns[attribute.ordinal()];
+        final BitSet rows = new BitSet(entries.size());
+        for (String value : values) {
+            final BitSet valueRows = column.rows(value);
+            if (valueRows != null) {
+                rows.or(valueRows);
+            }
+        }
+
+        return rows;
+    }
+
+    CatalogEntry entry(final int row) {
+        return entries.get(row);
+    }
+
+    /**
+     * Conjunction of attribute conditions over a catalogue. Conditions on the same attribute
+     * are combined with "or", conditions on different attributes with "and".
+     */
+    public class Query {
+
+        private final BitSet rows;
+
+        Query() {
+            this.rows = new BitSet(entries.size());
+            this.rows.set(0, entries.size());
+        }
+
+        /**
+         * @param attribute Attribute to filter on.
+         * @param values    Accepted values, ignoring case. Null accepts entries without the
+         *                  attribute.
+         * @return this query
+         */
+        public Query where(final Attribute attribute, final String... values) {
+            if (attribute == null) {
+                throw new IllegalArgumentException("Invalid attribute");
+            }
+
+            rows.and(BrowserCatalog.this.rows(attribute, (values != null) ? values : new String[]{null}));
+            return this;
+        }
+
+        public Query os(final String... values) {
+            return where(Attribute.OS, values);
+        }
+
+        public Query osVersion(final String... values) {
+            return where(Attribute.OS_VERSION, values);
+        }
+
+        public Query browser(final String... values) {
+            return where(Attribute.BROWSER, values);
+        }
+
+        public Query browserVersion(final String... values) {
+            return where(Attribute.BROWSER_VERSION, values);
+        }
+
+        public Query device(final String... values) {
+            return where(Attribute.DEVICE, values);
+        }
+
+        /**
+         * Keeps the entries with one of the {@code count} newest versions among the entries
+         * matched so far, so it should be called after the other conditions.
+         *
+         * @param attribute {@link Attribute#OS_VERSION} or {@link Attribute#BROWSER_VERSION}.
+         * @param count     Number of versions to keep.
+         * @return this query
+         */
+        public Query latest(final Attribute attribute, final int count) {
+            if (count <= 0) {
+                throw new IllegalArgumentException("Invalid count");
+            }
+
+            rows.and(versions(attribute).latestRows(rows, count, false));
+            return this;
+        }
+
+        /**
+         * Keeps the entries with the given version. Besides exact values, the version may be
+         * "latest" or "latest-N", resolved against the entries matched so far, or a numeric
+         * version, which also matches values differing only by trailing zeros ("17" matches
+         * "17.0").
+         *
+         * @param attribute {@link Attribute#OS_VERSION} or {@link Attribute#BROWSER_VERSION}.
+         * @param version   Version to match.
+         * @return this query
+         */
+        public Query version(final Attribute attribute, final String version) {
+            if (version == null) {
+                return where(attribute, (String) null);
+            }
+
+            final VersionIndex index = versions(attribute);
+            final String spec = version.trim().toLowerCase(Locale.ROOT);
+            if (spec.startsWith(LATEST)) {
+                final int offset = parseOffset(spec.substring(LATEST.length()).trim());
+                if (offset >= 0) {
+                    rows.and(index.latestRows(rows, offset + 1, true));
+                    return this;
+                }
+            }
+
+            final Version parsed = Version.parse(spec);
+            if (parsed != null) {
+                rows.and(index.rangeRows(parsed, parsed));
+                return this;
+            }
+
+            return where(attribute, version);
+        }
+
+        /**
+         * Keeps the entries with a numeric version between the given bounds.
+         *
+         * @param attribute {@link Attribute#OS_VERSION} or {@link Attribute#BROWSER_VERSION}.
+         * @param from      Oldest version, inclusive, or null.
+         * @param to        Newest version, inclusive, or null.
+         * @return this query
+         */
+        public Query versionBetween(final Attribute attribute, final String from, final String to) {
+            final Version low = (from == null) ? null : Version.parse(from);
+            final Version high = (to == null) ? null : Version.parse(to);
+            if ((from != null && low == null) || (to != null && high == null)) {
+                throw new IllegalArgumentException("Invalid version");
+            }
+
+            rows.and(versions(attribute).rangeRows(low, high));
+            return this;
+        }
+
+        /**
+         * Restricts the query to the given rows.
+         */
+        Query retain(final BitSet retained) {
+            rows.and(retained);
+            return this;
+        }
+
+        BitSet rows() {
+            return (BitSet) rows.clone();
+        }
+
+        public int count() {
+            return rows.cardinality();
+        }
+
+        public boolean isEmpty() {
+            return rows.isEmpty();
+        }
+
+        /**
+         * @return the matching entries, in listing order.
+         */
+        public List<CatalogEntry> list() {
+            final List<CatalogEntry> result = new ArrayList<>(rows.cardinality());
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                result.add(entries.get(row));
+            }
+
+            return result;
+        }
+
+        /**
+         * @return the first matching entry, or null.
+         */
+        public CatalogEntry first() {
+            final int row = rows.nextSetBit(0);
+            return (row >= 0) ? entries.get(row) : null;
+        }
+
+        /**
+         * @param attribute Attribute to list.
+         * @return the distinct values of the attribute among the matching entries.
+         */
+        public Set<String> distinct(final Attribute attribute) {
+            final Set<String> values = new LinkedHashSet<>();
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                final String value = entries.get(row).get(attribute);
+                if (value != null) {
+                    values.add(value);
+                }
+            }
+
+            return values;
+        }
+    }
+
+    /**
+     * @return the offset of "latest-N" given the part after "latest", or -1 if not valid.
+     */
+    private static int parseOffset(final String suffix) {
+        if (suffix.isEmpty()) {
+            return 0;
+        }
+
+        if (suffix.charAt(0) != '-') {
+            return -1;
+        }
+
+        try {
+            return Math.max(-1, Integer.parseInt(suffix.substring(1).trim()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Dictionary-encoded values of one attribute, with the rows holding each value.
+     */
+    private static class Column {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private final List<BitSet> rowsByCode = new ArrayList<>();
+        private final BitSet missing = new BitSet();
+
+        Column(final List<CatalogEntry> entries, final Attribute attribute) {
+            for (int row = 0; row < entries.size(); row++) {
+                final String value = entries.get(row).get(attribute);
+                if (value == null) {
+                    missing.set(row);
+                    continue;
+                }
+
+                final String key = value.toLowerCase(Locale.ROOT);
+                Integer code = codes.get(key);
+                if (code == null) {
+                    code = dictionary.size();
+                    codes.put(key, code);
+                    dictionary.add(value);
+                    rowsByCode.add(new BitSet(entries.size()));
+                }
+
+                rowsByCode.get(code).set(row);
+            }
+        }
+
+        BitSet rows(final String value) {
+            if (value == null) {
+                return missing;
+            }
+
+            final Integer code = codes.get(value.toLowerCase(Locale.ROOT));
+            return (code != null) ? rowsByCode.get(code) : null;
+        }
+
+        Set<String> values() {
+            return Collections.unmodifiableSet(new LinkedHashSet<>(dictionary));
+        }
+
+        VersionIndex newVersionIndex() {
+            return new VersionIndex(dictionary, rowsByCode);
+        }
+    }
+
+    /**
+     * Shares one String instance per distinct value across all entries of a catalogue.
+     */
+    private static class Interner {
+        private final Map<String, String> strings = new HashMap<>();
+
+        CatalogEntry entry(final String os, final String osVersion, final String browser,
+                           final String browserVersion, final String device, final String displayName,
+                           final Object source) {
+            return new CatalogEntry(intern(os), intern(osVersion), intern(browser), intern(browserVersion),
+                    intern(device), intern(displayName), source);
+        }
+
+        private String intern(final String value) {
+            if (value == null) {
+                return null;
+            }
+
+            final String existing = strings.putIfAbsent(value, value);
+            return (existing != null) ? existing : value;
+        }
+    }
+}
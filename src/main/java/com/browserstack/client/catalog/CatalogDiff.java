@@ -0,0 +1,202 @@
+package com.browserstack.client.catalog;
+
+import com.browserstack.client.model.Browser;
+import com.browserstack.client.model.BrowserListing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Differences between two snapshots of the browsers and devices offered by BrowserStack.
+ *
+ * <p>
+ * Entries are matched on os, os_version, browser, browser_version and device through a hash
+ * table, so a diff takes time linear in the size of both snapshots. An entry present in both
+ * with a different display name or other details is reported as changed. A listing may hold the
+ * same browser or device more than once; such duplicates are matched in listing order, and only
+ * the copies without a counterpart are reported as added or removed.
+ * </p>
+ */
+public class CatalogDiff {
+
+    private final BrowserCatalog before;
+    private final BrowserCatalog after;
+    private final List<CatalogEntry> added = new ArrayList<>();
+    private final List<CatalogEntry> removed = new ArrayList<>();
+    private final List<Change> changed = new ArrayList<>();
+
+    private CatalogDiff(final BrowserCatalog before, final BrowserCatalog after) {
+        this.before = before;
+        this.after = after;
+
+        final Map<Key, ArrayDeque<CatalogEntry>> previous = new HashMap<>(before.size() * 2);
+        for (CatalogEntry entry : before.getEntries()) {
+            previous.computeIfAbsent(new Key(entry), k -> new ArrayDeque<>(1)).add(entry);
+        }
+
+        for (CatalogEntry entry : after.getEntries()) {
+            final ArrayDeque<CatalogEntry> copies = previous.get(new Key(entry));
+            final CatalogEntry old = (copies != null) ? copies.poll() : null;
+            if (old == null) {
+                added.add(entry);
+            } else if (!old.hasSameDetails(entry)) {
+                changed.add(new Change(old, entry));
+            }
+        }
+
+        // whatever was not matched by the new snapshot is gone; keep the listing order
+        final Set<CatalogEntry> unmatched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ArrayDeque<CatalogEntry> copies : previous.values()) {
+            unmatched.addAll(copies);
+        }
+
+        for (CatalogEntry entry : before.getEntries()) {
+            if (unmatched.contains(entry)) {
+                removed.add(entry);
+            }
+        }
+    }
+
+    /**
+     * @param before Earlier catalogue.
+     * @param after  Later catalogue.
+     * @return the differences from {@code before} to {@code after}.
+     */
+    public static CatalogDiff between(final BrowserCatalog before, final BrowserCatalog after) {
+        if (before == null || after == null) {
+            throw new IllegalArgumentException("Invalid catalog");
+        }
+
+        return new CatalogDiff(before, after);
+    }
+
+    /**
+     * @param before Earlier product listing.
+     * @param after  Later product listing.
+     * @return the differences from {@code before} to {@code after}.
+     */
+    public static CatalogDiff between(final BrowserListing before, final BrowserListing after) {
+        return new CatalogDiff(BrowserCatalog.of(before), BrowserCatalog.of(after));
+    }
+
+    /**
+     * @param before Earlier list of Automate browsers.
+     * @param after  Later list of Automate browsers.
+     * @return the differences from {@code before} to {@code after}.
+     */
+    public static CatalogDiff between(final List<Browser> before, final List<Browser> after) {
+        return new CatalogDiff(BrowserCatalog.of(before), BrowserCatalog.of(after));
+    }
+
+    public BrowserCatalog getBefore() {
+        return before;
+    }
+
+    public BrowserCatalog getAfter() {
+        return after;
+    }
+
+    /**
+     * @return entries only in the later snapshot.
+     */
+    public List<CatalogEntry> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+
+    /**
+     * @return entries only in the earlier snapshot.
+     */
+    public List<CatalogEntry> getRemoved() {
+        return Collections.unmodifiableList(removed);
+    }
+
+    /**
+     * @return entries in both snapshots whose details differ.
+     */
+    public List<Change> getChanged() {
+        return Collections.unmodifiableList(changed);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogDiff{added=" + added.size() + ", removed=" + removed.size()
+                + ", changed=" + changed.size() + "}";
+    }
+
+    /**
+     * Identity of a browser or device, independent of its display name and other details.
+     */
+    private static final class Key {
+        private final String os;
+        private final String osVersion;
+        private final String browser;
+        private final String browserVersion;
+        private final String device;
+
+        Key(final CatalogEntry entry) {
+            this.os = entry.getOs();
+            this.osVersion = entry.getOsVersion();
+            this.browser = entry.getBrowser();
+            this.browserVersion = entry.getBrowserVersion();
+            this.device = entry.getDevice();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            final Key that = (Key) o;
+            return Objects.equals(os, that.os) && Objects.equals(osVersion, that.osVersion)
+                    && Objects.equals(browser, that.browser) && Objects.equals(browserVersion, that.browserVersion)
+                    && Objects.equals(device, that.device);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(os, osVersion, browser, browserVersion, device);
+        }
+    }
+
+    /**
+     * The same browser or device in both snapshots.
+     */
+    public static class Change {
+        private final CatalogEntry before;
+        private final CatalogEntry after;
+
+        Change(final CatalogEntry before, final CatalogEntry after) {
+            this.before = before;
+            this.after = after;
+        }
+
+        public CatalogEntry getBefore() {
+            return before;
+        }
+
+        public CatalogEntry getAfter() {
+            return after;
+        }
+
+        @Override
+        public String toString() {
+            return "Change{before=" + before + ", after=" + after + "}";
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.browserstack.client.catalog;
+
+import com.browserstack.client.model.Browser;
+import com.browserstack.client.model.Device;
+
+import java.util.Objects;
+
+/**
+ * One browser or device of a {@link BrowserCatalog}. Attributes not applicable to the entry,
+ * such as the browser of a real mobile device, are null.
+ */
+public class CatalogEntry {
+
+    private final String os;
+    private final String osVersion;
+    private final String browser;
+    private final String browserVersion;
+    private final String device;
+    private final String displayName;
+    private final Object source;
+
+    CatalogEntry(final String os, final String osVersion, final String browser, final String browserVersion,
+                 final String device, final String displayName, final Object source) {
+        this.os = os;
+        this.osVersion = osVersion;
+        this.browser = browser;
+        this.browserVersion = browserVersion;
+        this.device = device;
+        this.displayName = displayName;
+        this.source = source;
+    }
+
+    public String getOs() {
+        return os;
+    }
+
+    public String getOsVersion() {
+        return osVersion;
+    }
+
+    public String getBrowser() {
+        return browser;
+    }
+
+    public String getBrowserVersion() {
+        return browserVersion;
+    }
+
+    public String getDevice() {
+        return device;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @param attribute Attribute to read.
+     * @return the value of the attribute, or null.
+     */
+    public String get(final BrowserCatalog.Attribute attribute) {
+        switch (attribute) {
+            case OS:
+                return os;
+
+            case OS_VERSION:
+                return osVersion;
+
+            case BROWSER:
+                return browser;
+
+            case BROWSER_VERSION:
+                return browserVersion;
+
+            default:
+                return device;
+        }
+    }
+
+    /**
+     * @return the model object the entry was built from, a
+     * {@link com.browserstack.client.model.Browser} or a {@link com.browserstack.client.model.Device}.
+     */
+    public Object getSource() {
+        return source;
+    }
+
+    /**
+     * Entries are equal when they describe the same browser or device; this compares the
+     * remaining details, such as the display name.
+     */
+    boolean hasSameDetails(final CatalogEntry other) {
+        return Objects.equals(displayName, other.displayName)
+                && Objects.equals(extraProperties(source), extraProperties(other.source));
+    }
+
+    private static Object extraProperties(final Object source) {
+        if (source instanceof Browser) {
+            return ((Browser) source).getAdditionalProperties();
+        }
+
+        if (source instanceof Device) {
+            return ((Device) source).getAdditionalProperties();
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof CatalogEntry)) {
+            return false;
+        }
+
+        final CatalogEntry that = (CatalogEntry) o;
+        return Objects.equals(os, that.os) && Objects.equals(osVersion, that.osVersion)
+                && Objects.equals(browser, that.browser) && Objects.equals(browserVersion, that.browserVersion)
+                && Objects.equals(device, that.device);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(os, osVersion, browser, browserVersion, device);
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogEntry{os=" + os + ", osVersion=" + osVersion + ", browser=" + browser
+                + ", browserVersion=" + browserVersion + ", device=" + device + "}";
+    }
+}
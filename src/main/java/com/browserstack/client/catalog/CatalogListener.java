@@ -0,0 +1,15 @@
+package com.browserstack.client.catalog;
+
+/**
+ * Notified when a cached browser listing is replaced by one offering different browsers or
+ * devices.
+ */
+public interface CatalogListener {
+
+    /**
+     * Called on the thread that refreshed the listing, so it should return quickly.
+     *
+     * @param diff Entries added, removed or changed since the previous listing. Never empty.
+     */
+    void onCatalogChanged(CatalogDiff diff);
+}
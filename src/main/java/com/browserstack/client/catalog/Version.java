@@ -0,0 +1,82 @@
+package com.browserstack.client.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Numeric browser or OS version such as "17", "17.0" or "120.0.6099". Trailing zero components
+ * are not significant, so "17" and "17.0" are equal.
+ */
+final class Version implements Comparable<Version> {
+
+    private final int[] parts;
+
+    private Version(final int[] parts) {
+        this.parts = parts;
+    }
+
+    /**
+     * @param value Raw version string.
+     * @return the parsed version, or null if the value is not made of dot separated numbers,
+     * such as "beta", "dev" or "Sonoma".
+     */
+    static Version parse(final String value) {
+        if (value == null) {
+            return null;
+        }
+
+        final String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+
+        final String[] tokens = trimmed.split("\\.", -1);
+        int[] parts = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            final String token = tokens[i];
+            if (token.isEmpty() || token.length() > 9) {
+                return null;
+            }
+
+            for (int j = 0; j < token.length(); j++) {
+                if (!Character.isDigit(token.charAt(j))) {
+                    return null;
+                }
+            }
+
+            parts[i] = Integer.parseInt(token);
+        }
+
+        int length = parts.length;
+        while (length > 1 && parts[length - 1] == 0) {
+            length--;
+        }
+
+        if (length < parts.length) {
+            parts = Arrays.copyOf(parts, length);
+        }
+
+        return new Version(parts);
+    }
+
+    @Override
+    public int compareTo(final Version other) {
+        final int length = Math.min(parts.length, other.parts.length);
+        for (int i = 0; i < length; i++) {
+            if (parts[i] != other.parts[i]) {
+                return Integer.compare(parts[i], other.parts[i]);
+            }
+        }
+
+        return Integer.compare(parts.length, other.parts.length);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return (this == o) || (o instanceof Version && Arrays.equals(parts, ((Version) o).parts));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(parts);
+    }
+}
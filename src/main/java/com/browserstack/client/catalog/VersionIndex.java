@@ -0,0 +1,167 @@
+package com.browserstack.client.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Numeric values of a version attribute of a {@link BrowserCatalog}, sorted once when the
+ * catalogue is built.
+ *
+ * <p>
+ * Values which are not numeric, such as "beta", "dev" or macOS release names, have no order and
+ * are left out; they can still be matched exactly with {@link BrowserCatalog.Query#where}.
+ * Values that differ only by trailing zeros, such as "17" and "17.0", are the same version.
+ * </p>
+ */
+public class VersionIndex {
+
+    private final Version[] versions;
+    private final String[] labels;
+    private final BitSet[] rows;
+
+    /**
+     * @param values      Distinct raw values of the attribute.
+     * @param rowsByValue Rows holding each value, in the same order.
+     */
+    VersionIndex(final List<String> values, final List<BitSet> rowsByValue) {
+        final TreeMap<Version, Integer> sorted = new TreeMap<>();
+        final List<String> groupLabels = new ArrayList<>();
+        final List<BitSet> groupRows = new ArrayList<>();
+
+        for (int i = 0; i < values.size(); i++) {
+            final Version version = Version.parse(values.get(i));
+            if (version == null) {
+                continue;
+            }
+
+            final Integer group = sorted.get(version);
+            if (group == null) {
+                sorted.put(version, groupLabels.size());
+                groupLabels.add(values.get(i));
+                groupRows.add((BitSet) rowsByValue.get(i).clone());
+            } else {
+                groupRows.get(group).or(rowsByValue.get(i));
+            }
+        }
+
+        this.versions = new Version[sorted.size()];
+        this.labels = new String[sorted.size()];
+        this.rows = new BitSet[sorted.size()];
+
+        int index = 0;
+        for (Map.Entry<Version, Integer> entry : sorted.entrySet()) {
+            versions[index] = entry.getKey();
+            labels[index] = groupLabels.get(entry.getValue());
+            rows[index] = groupRows.get(entry.getValue());
+            index++;
+        }
+    }
+
+    /**
+     * @return the distinct numeric versions, oldest first.
+     */
+    public List<String> getVersions() {
+        return Collections.unmodifiableList(Arrays.asList(labels));
+    }
+
+    /**
+     * @return the newest version, or null if there is none.
+     */
+    public String latest() {
+        return latest(0);
+    }
+
+    /**
+     * @param offset Number of versions to skip from the newest, as in "latest-1".
+     * @return the version, or null if there are not enough versions.
+     */
+    public String latest(final int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Invalid offset");
+        }
+
+        return (offset < labels.length) ? labels[labels.length - 1 - offset] : null;
+    }
+
+    public int size() {
+        return versions.length;
+    }
+
+    /**
+     * Rows holding any of the {@code count} newest versions present in {@code candidates}, or
+     * only the one version at that position if {@code exact} is set.
+     */
+    BitSet latestRows(final BitSet candidates, final int count, final boolean exact) {
+        final BitSet result = new BitSet();
+        int seen = 0;
+        for (int i = versions.length - 1; i >= 0 && seen < count; i--) {
+            if (!rows[i].intersects(candidates)) {
+                continue;
+            }
+
+            seen++;
+            if (!exact || seen == count) {
+                result.or(rows[i]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Rows holding a version between {@code from} and {@code to}, both inclusive. A null bound
+     * is open.
+     */
+    BitSet rangeRows(final Version from, final Version to) {
+        final int start = (from == null) ? 0 : lowerBound(from);
+        final int end = (to == null) ? versions.length : upperBound(to);
+
+        final BitSet result = new BitSet();
+        for (int i = start; i < end; i++) {
+            result.or(rows[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * @return index of the first version not older than {@code version}.
+     */
+    private int lowerBound(final Version version) {
+        int low = 0;
+        int high = versions.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (versions[mid].compareTo(version) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * @return index of the first version newer than {@code version}.
+     */
+    private int upperBound(final Version version) {
+        int low = 0;
+        int high = versions.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (versions[mid].compareTo(version) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+}
@@ -0,0 +1,10 @@
+package com.browserstack.client.exception;
+
+
+public class BrowserStackCircuitOpenException extends BrowserStackException {
+
+    public BrowserStackCircuitOpenException(String message) {
+        super(message, 503);
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.browserstack.client.exception;
+
+
+public class BrowserStackRateLimitException extends BrowserStackException {
+
+    public BrowserStackRateLimitException(String message) {
+        super(message, 429);
+    }
+
+}
@@ -1,16 +1,90 @@
 package com.browserstack.client.util;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
-
+/**
+ * Concurrent, size-bounded cache whose entries expire a fixed time after they were written.
+ *
+ * <p>
+ * Reads never wait on a lock; writes are serialized. When the cache grows past its maximum size
+ * the least recently read entry is evicted, and expired entries are purged in the background by a
+ * shared daemon thread, so entries that are never read again do not linger. Recency is tracked on
+ * a best-effort basis: a read that finds the cache busy is not recorded.
+ * </p>
+ *
+ * <p>
+ * Keys registered with {@link #refreshAhead(Object, Loader, long, Executor)} are instead reloaded
+ * before they expire. The shared daemon thread only schedules these reloads; the loader itself
+ * runs on the executor passed at registration. The last value keeps being served, even past its
+ * expiry, until a reload succeeds. Refreshed keys are evicted last, but the maximum size applies
+ * to them too: a refreshed key that has to be evicted stops being refreshed.
+ * </p>
+ *
+ * <p>
+ * {@link Listener}s registered with {@link #addListener(Listener)} are told when a value is put,
+ * whether it replaces another one, for example after a background reload, or fills a key that
+ * was missing or had expired.
+ * </p>
+ *
+ * <p>
+ * An optional {@link BrowserStackDiskStore} adds a file-backed tier: values of the types it
+ * accepts are written through to disk, and a miss in memory falls back to a disk entry that has
+ * not yet expired, keeping its original creation time.
+ * </p>
+ */
 public class BrowserStackCache<K, T> {
 
     private static final long DEFAULT_EXPIRY_TIME = 86400000; // 1 day
     private static final int DEFAULT_MAX_INIT_ITEMS = 10;
+    private static final int DEFAULT_MAX_SIZE = 1000;
+    private static final long MAX_PURGE_INTERVAL = 60000; // 1 minute
+    private static final long MIN_PURGE_INTERVAL = 1000; // 1 second
+    private static final int EVICTION_CANDIDATES = 8;
+
+    private static final int DEFAULT_LOADER_THREADS = 4;
+
+    // only times purges and reloads, never runs a load itself
+    private static final ScheduledExecutorService SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(
+                    TaskExecutors.newThreadFactory("browserstack-cache"));
+
+    private static volatile Executor defaultLoader;
 
     private final Map<K, BrowserStackCacheObject> cacheMap;
     private final long expiryTime;
+    private final int maxSize;
+
+    // guards writes to cacheMap and the access order of its keys, least recently used first
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, BrowserStackCacheObject> accessOrder;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong refreshFailureCount = new AtomicLong();
+
+    private final Map<K, ScheduledFuture<?>> refreshTasks = new ConcurrentHashMap<>();
+
+    private final List<Listener<K, T>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile BrowserStackDiskStore diskStore;
 
     public BrowserStackCache() {
         this(DEFAULT_EXPIRY_TIME);
@@ -21,58 +95,405 @@ public class BrowserStackCache<K, T> {
     }
 
     public BrowserStackCache(long expiryTime, int maxInitItems) {
-        this.cacheMap = new HashMap<>(maxInitItems);
+        this(expiryTime, maxInitItems, DEFAULT_MAX_SIZE);
+    }
+
+    public BrowserStackCache(long expiryTime, int maxInitItems, int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Invalid maxSize");
+        }
+
+        this.cacheMap = new ConcurrentHashMap<>(maxInitItems);
+        this.accessOrder = new LinkedHashMap<>(maxInitItems, 0.75f, true);
         this.expiryTime = expiryTime;
+        this.maxSize = maxSize;
+        schedulePurge(this, Math.max(MIN_PURGE_INTERVAL, Math.min(expiryTime, MAX_PURGE_INTERVAL)));
     }
 
     public boolean containsKey(K key) {
-        synchronized (cacheMap) {
-            return cacheMap.containsKey(key);
-        }
+        BrowserStackCacheObject c = cacheMap.get(key);
+        return c != null
+                && (!c.isExpired(System.currentTimeMillis()) || refreshTasks.containsKey(key));
     }
 
     public void put(K key, T value) {
-        synchronized (cacheMap) {
-            cacheMap.put(key, new BrowserStackCacheObject(value));
+        final BrowserStackCacheObject c =
+                new BrowserStackCacheObject(value, System.currentTimeMillis());
+        final BrowserStackCacheObject previous;
+
+        lock.lock();
+        try {
+            previous = cacheMap.put(key, c);
+            accessOrder.put(key, c);
+            evictLeastRecentlyUsed();
+        } finally {
+            lock.unlock();
+        }
+
+        if (previous == null || previous.value != value) {
+            notifyReplaced(key, (previous != null) ? previous.value : null, value);
+        }
+
+        final BrowserStackDiskStore store = diskStore;
+        if (store != null && store.accepts(value)) {
+            try {
+                store.write(key.toString(), value, c.created);
+            } catch (IOException e) {
+                // the disk tier is best-effort, the value is still cached in memory
+            }
         }
     }
 
     public T get(K key) {
-        synchronized (cacheMap) {
-            BrowserStackCacheObject c = cacheMap.get(key);
-            if (c == null) {
-                return null;
-            }
+        BrowserStackCacheObject c = cacheMap.get(key);
+        if (c == null) {
+            c = loadFromDisk(key);
+        }
 
-            long timeDiff = System.currentTimeMillis() - c.created;
-            if (timeDiff < 0 || timeDiff >= expiryTime) {
-                cacheMap.remove(key);
-                return null;
-            }
+        if (c == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
 
-            return c.value;
+        if (c.isExpired(System.currentTimeMillis()) && !refreshTasks.containsKey(key)) {
+            evict(key, c);
+            missCount.incrementAndGet();
+            return null;
         }
+
+        // reads do not wait for writers; a read missed here only makes eviction less precise
+        if (lock.tryLock()) {
+            try {
+                accessOrder.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        hitCount.incrementAndGet();
+        return c.value;
     }
 
     public void remove(K key) {
-        synchronized (cacheMap) {
+        lock.lock();
+        try {
             cacheMap.remove(key);
+            accessOrder.remove(key);
+        } finally {
+            lock.unlock();
+        }
+
+        final BrowserStackDiskStore store = diskStore;
+        if (store != null) {
+            store.remove(key.toString());
+        }
+    }
+
+    /**
+     * @param listener Notified when a value is put, unless it is the value already cached.
+     */
+    public void addListener(final Listener<K, T> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Invalid listener");
+        }
+
+        listeners.add(listener);
+    }
+
+    public void removeListener(final Listener<K, T> listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyReplaced(final K key, final T previous, final T current) {
+        for (Listener<K, T> listener : listeners) {
+            try {
+                listener.onReplace(key, previous, current);
+            } catch (RuntimeException e) {
+                // a failing listener must not affect the cache or the other listeners
+            }
+        }
+    }
+
+    /**
+     * @param diskStore File-backed tier to write values through to and to read misses from,
+     *                  or null to keep the cache in memory only.
+     */
+    public void setDiskStore(final BrowserStackDiskStore diskStore) {
+        this.diskStore = diskStore;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BrowserStackCacheObject loadFromDisk(final K key) {
+        final BrowserStackDiskStore store = diskStore;
+        if (store == null) {
+            return null;
+        }
+
+        final BrowserStackDiskStore.Entry entry = store.read(key.toString(), expiryTime);
+        if (entry == null) {
+            return null;
+        }
+
+        final BrowserStackCacheObject c =
+                new BrowserStackCacheObject((T) entry.value, entry.created);
+        lock.lock();
+        try {
+            final BrowserStackCacheObject previous = cacheMap.putIfAbsent(key, c);
+            if (previous != null) {
+                return previous;
+            }
+
+            accessOrder.put(key, c);
+            evictLeastRecentlyUsed();
+            return c;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        stopRefreshing();
+
+        lock.lock();
+        try {
+            cacheMap.clear();
+            accessOrder.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Keeps a key loaded by reloading it in the background every {@code refreshInterval}
+     * milliseconds, on a small loader pool shared by all caches.
+     *
+     * @see #refreshAhead(Object, Loader, long, Executor)
+     */
+    public void refreshAhead(final K key, final Loader<? extends T> loader,
+                             final long refreshInterval) {
+        refreshAhead(key, loader, refreshInterval, getDefaultLoader());
+    }
+
+    /**
+     * Keeps a key loaded by reloading it in the background every {@code refreshInterval}
+     * milliseconds. Reads keep returning the current value while a reload is in progress, and
+     * keep returning it past its expiry if reloads fail. A reload is skipped while the previous
+     * one is still running. Does nothing if the key is already being refreshed.
+     *
+     * @param key             Key to keep loaded.
+     * @param loader          Produces a fresh value for the key.
+     * @param refreshInterval Milliseconds between reloads; should be shorter than the expiry time.
+     * @param executor        Runs the loader, which may block.
+     */
+    public void refreshAhead(final K key, final Loader<? extends T> loader,
+                             final long refreshInterval, final Executor executor) {
+        if (refreshInterval <= 0) {
+            throw new IllegalArgumentException("Invalid refreshInterval");
+        }
+
+        if (executor == null) {
+            throw new IllegalArgumentException("Invalid executor");
+        }
+
+        final AtomicBoolean loading = new AtomicBoolean();
+        final Runnable reload = () -> {
+            try {
+                T value = loader.load();
+                if (value != null) {
+                    put(key, value);
+                }
+            } catch (Exception e) {
+                // keep serving the previous value until a reload succeeds
+                refreshFailureCount.incrementAndGet();
+            } finally {
+                loading.set(false);
+            }
+        };
+
+        refreshTasks.computeIfAbsent(key, k -> SCHEDULER.scheduleWithFixedDelay(() -> {
+            if (!loading.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                executor.execute(reload);
+            } catch (RejectedExecutionException e) {
+                loading.set(false);
+                refreshFailureCount.incrementAndGet();
+            }
+        }, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS));
+    }
+
+    private static Executor getDefaultLoader() {
+        Executor executor = defaultLoader;
+        if (executor == null) {
+            synchronized (BrowserStackCache.class) {
+                executor = defaultLoader;
+                if (executor == null) {
+                    executor = TaskExecutors.newBoundedExecutor(DEFAULT_LOADER_THREADS,
+                            "browserstack-cache-loader");
+                    defaultLoader = executor;
+                }
+            }
+        }
+
+        return executor;
+    }
+
+    /**
+     * @param key Key to stop reloading. Its value then expires normally.
+     */
+    public void stopRefresh(final K key) {
+        ScheduledFuture<?> task = refreshTasks.remove(key);
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    /**
+     * Stops reloading every key registered for refresh-ahead.
+     */
+    public void stopRefreshing() {
+        for (K key : refreshTasks.keySet()) {
+            stopRefresh(key);
         }
     }
 
     public int size() {
-        synchronized (cacheMap) {
-            return cacheMap.size();
+        return cacheMap.size();
+    }
+
+    /**
+     * @return number of reads that returned a cached value.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return number of reads that found no value, or only an expired one.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return number of entries removed because they expired or the cache was full.
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return number of background reloads that failed.
+     */
+    public long getRefreshFailureCount() {
+        return refreshFailureCount.get();
+    }
+
+    /**
+     * Removes every expired entry that is not being refreshed. Called periodically in the
+     * background.
+     */
+    public void purgeExpired() {
+        final long now = System.currentTimeMillis();
+        for (Map.Entry<K, BrowserStackCacheObject> entry : cacheMap.entrySet()) {
+            if (entry.getValue().isExpired(now) && !refreshTasks.containsKey(entry.getKey())) {
+                evict(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void evict(final K key, final BrowserStackCacheObject c) {
+        lock.lock();
+        try {
+            if (cacheMap.remove(key, c)) {
+                accessOrder.remove(key);
+                evictionCount.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
+    // called with lock held
+    private void evictLeastRecentlyUsed() {
+        while (accessOrder.size() > maxSize) {
+            // the least recently used of the first few keys that is not being refreshed, or
+            // failing that the least recently used key
+            final Iterator<K> keys = accessOrder.keySet().iterator();
+            K victim = keys.next();
+            for (int i = 1; refreshTasks.containsKey(victim) && i < EVICTION_CANDIDATES
+                    && keys.hasNext(); i++) {
+                final K key = keys.next();
+                if (!refreshTasks.containsKey(key)) {
+                    victim = key;
+                }
+            }
+
+            stopRefresh(victim);
+            accessOrder.remove(victim);
+            cacheMap.remove(victim);
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    private static void schedulePurge(final BrowserStackCache<?, ?> cache, final long interval) {
+        // the task only holds a weak reference, so an unreachable cache cancels its own purging
+        final WeakReference<BrowserStackCache<?, ?>> cacheRef = new WeakReference<>(cache);
+        final AtomicReference<ScheduledFuture<?>> task = new AtomicReference<>();
+
+        task.set(SCHEDULER.scheduleWithFixedDelay(() -> {
+            BrowserStackCache<?, ?> c = cacheRef.get();
+            if (c == null) {
+                ScheduledFuture<?> self = task.get();
+                if (self != null) {
+                    self.cancel(false);
+                }
+                return;
+            }
+
+            c.purgeExpired();
+        }, interval, interval, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Produces a value for a refreshed key.
+     */
+    public interface Loader<T> {
+        T load() throws Exception;
+    }
+
+    /**
+     * Notified on the thread writing the new value, so it should return quickly.
+     */
+    public interface Listener<K, T> {
+
+        /**
+         * @param key      Key of the replaced value.
+         * @param previous Value that was cached before, possibly expired, or null if the key was
+         *                 not cached, for example because its value expired and was evicted.
+         * @param current  Value now cached.
+         */
+        void onReplace(K key, T previous, T current);
+    }
+
     protected class BrowserStackCacheObject {
         public final T value;
         public final long created;
 
         protected BrowserStackCacheObject(T value) {
+            this(value, System.currentTimeMillis());
+        }
+
+        protected BrowserStackCacheObject(T value, long created) {
             this.value = value;
-            this.created = System.currentTimeMillis();
+            this.created = created;
+        }
+
+        boolean isExpired(long now) {
+            long timeDiff = now - created;
+            return timeDiff < 0 || timeDiff >= expiryTime;
         }
     }
-}
\ No newline at end of file
+}
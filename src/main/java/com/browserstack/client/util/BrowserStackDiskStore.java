@@ -0,0 +1,230 @@
+package com.browserstack.client.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * File-backed tier for {@link BrowserStackCache}, so short-lived JVMs can reuse listings that an
+ * earlier JVM already downloaded.
+ *
+ * <p>
+ * Each entry is one file: a fixed header (magic, format version, creation time, payload length)
+ * followed by the name of the value's type and the value as JSON. Only the types given to the
+ * constructor are written or read back, so a tampered file cannot instantiate anything else.
+ * Files are memory-mapped on read and the header is checked against the expiry time before the
+ * payload is decoded, so stale or foreign files cost almost nothing. Writes go to a temporary
+ * file that is then moved into place, so readers never see a partial entry.
+ * </p>
+ */
+public class BrowserStackDiskStore {
+
+    private static final int MAGIC = 0x42534331; // "BSC1"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+    private static final String FILE_SUFFIX = ".bin";
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private final Path directory;
+    private final String namespace;
+    private final Map<String, Class<?>> types = new HashMap<>();
+
+    /**
+     * @param directory Directory holding the cache files. Created if it does not exist.
+     * @param namespace Prefix for file names, keeping entries of different endpoints apart.
+     * @param types     Types of the values that may be stored, as JSON.
+     */
+    public BrowserStackDiskStore(final File directory, final String namespace,
+                                 final Class<?>... types) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Invalid directory");
+        }
+
+        this.directory = directory.toPath();
+        this.namespace = sanitize(namespace == null ? "" : namespace);
+        for (Class<?> type : types) {
+            this.types.put(type.getName(), type);
+        }
+    }
+
+    /**
+     * @param value Value to be stored.
+     * @return true if the value is of a type this store accepts.
+     */
+    public boolean accepts(final Object value) {
+        return value != null && types.get(value.getClass().getName()) == value.getClass();
+    }
+
+    /**
+     * Reads an entry written less than {@code maxAge} milliseconds ago.
+     *
+     * @param key    Cache key.
+     * @param maxAge Maximum age of the entry in milliseconds.
+     * @return the stored entry, or null if it is missing, expired or unreadable.
+     */
+    public Entry read(final String key, final long maxAge) {
+        final Path file = fileFor(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+
+            final long created = buffer.getLong();
+            final long age = System.currentTimeMillis() - created;
+            if (age < 0 || age >= maxAge) {
+                return null;
+            }
+
+            final int length = buffer.getInt();
+            if (length != buffer.remaining()) {
+                return null;
+            }
+
+            final InputStream in = new ByteBufferInputStream(buffer);
+            final Class<?> type = types.get(new DataInputStream(in).readUTF());
+            if (type == null) {
+                return null;
+            }
+
+            return new Entry(JSON_MAPPER.readValue(in, type), created);
+        } catch (IOException | RuntimeException e) {
+            // a damaged or incompatible file is treated as a miss and overwritten on the next write
+            return null;
+        }
+    }
+
+    /**
+     * Stores a value, replacing any previous entry for the key.
+     *
+     * @param key     Cache key.
+     * @param value   Value to store, of a type this store {@link #accepts(Object) accepts}.
+     * @param created Creation time of the value, in epoch milliseconds.
+     * @throws IOException if the entry could not be written.
+     */
+    public void write(final String key, final Object value, final long created) throws IOException {
+        if (!accepts(value)) {
+            throw new IllegalArgumentException("Invalid value");
+        }
+
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        new DataOutputStream(payload).writeUTF(value.getClass().getName());
+        JSON_MAPPER.writeValue(payload, value);
+
+        Files.createDirectories(directory);
+        final Path file = fileFor(key);
+        final Path tempFile =
+                Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tempFile))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(created);
+                out.writeInt(payload.size());
+                payload.writeTo(out);
+            }
+
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * @param key Cache key whose file should be deleted.
+     */
+    public void remove(final String key) {
+        try {
+            Files.deleteIfExists(fileFor(key));
+        } catch (IOException e) {
+            // an undeletable file simply expires
+        }
+    }
+
+    private Path fileFor(final String key) {
+        return directory.resolve(namespace + "-" + sanitize(key) + FILE_SUFFIX);
+    }
+
+    private static String sanitize(final String name) {
+        final StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sb.append((Character.isLetterOrDigit(c) || c == '.' || c == '_') ? c : '_');
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * A value read back from disk, with the time it was originally created.
+     */
+    public static class Entry {
+        public final Object value;
+        public final long created;
+
+        Entry(final Object value, final long created) {
+            this.value = value;
+            this.created = created;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? (buffer.get() & 0xff) : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            final int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.browserstack.client.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Copies response bodies to their destination without holding them in memory.
+ *
+ * <p>
+ * On Java 9 and newer the copy is delegated to {@code InputStream.transferTo(OutputStream)}, which
+ * is looked up reflectively like the virtual threads of {@link TaskExecutors}, so streams that
+ * override it can copy more efficiently. Otherwise each copy uses a buffer of its own; a buffer
+ * kept per thread would never be reused on virtual threads.
+ * </p>
+ */
+public class Streams {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // InputStream.transferTo(OutputStream), or null before Java 9
+    private static final Method TRANSFER_TO = findTransferTo();
+
+    /**
+     * Copies everything left in {@code in} to {@code out}. Neither stream is closed.
+     *
+     * @param in  Source stream.
+     * @param out Destination stream.
+     * @return number of bytes copied.
+     * @throws IOException if reading or writing fails.
+     */
+    public static long copy(final InputStream in, final OutputStream out) throws IOException {
+        if (TRANSFER_TO != null) {
+            try {
+                return (Long) TRANSFER_TO.invoke(in, out);
+            } catch (InvocationTargetException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+
+                throw new IOException(cause);
+            } catch (IllegalAccessException e) {
+                // not accessible, copy it here instead
+            }
+        }
+
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            total += read;
+        }
+
+        return total;
+    }
+
+    private static Method findTransferTo() {
+        try {
+            return InputStream.class.getMethod("transferTo", OutputStream.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.browserstack.client.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory for the executors used to fan out BrowserStack API calls.
+ *
+ * <p>
+ * The library is compiled for Java 8. When it runs on Java 21 or newer, fan-out work is moved to
+ * virtual threads, which are looked up reflectively so a single jar serves both runtimes.
+ * </p>
+ */
+public class TaskExecutors {
+
+    private static final long KEEP_ALIVE_TIME = 60; // seconds
+
+    // Thread.ofVirtual(), Thread.Builder.name(String, long), Thread.Builder.factory() and
+    // Executors.newThreadPerTaskExecutor(ThreadFactory), or null before Java 21
+    private static final Method[] VIRTUAL_THREADS = findVirtualThreads();
+
+    /**
+     * Creates an executor that runs at most {@code maxThreads} tasks at a time and queues the rest.
+     * Idle threads are released after a minute and never keep the JVM alive.
+     *
+     * @param maxThreads Maximum number of concurrently running tasks.
+     * @param name       Prefix for the names of the worker threads.
+     * @return a new executor owned by the caller.
+     */
+    public static ExecutorService newBoundedExecutor(final int maxThreads, final String name) {
+        if (maxThreads <= 0) {
+            throw new IllegalArgumentException("Invalid maxThreads");
+        }
+
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads,
+                KEEP_ALIVE_TIME, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), newThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates the executor used for fan-out work such as paginated session fetches, bulk session
+     * updates and log downloads. On Java 21 and newer every task gets its own virtual thread.
+     * Callers bound their own concurrency; {@code maxThreads} only caps the number of platform
+     * threads on runtimes without virtual threads.
+     *
+     * @param maxThreads Maximum number of platform threads.
+     * @param name       Prefix for the names of the worker threads.
+     * @return a new executor owned by the caller.
+     */
+    public static ExecutorService newFanOutExecutor(final int maxThreads, final String name) {
+        if (maxThreads <= 0) {
+            throw new IllegalArgumentException("Invalid maxThreads");
+        }
+
+        if (VIRTUAL_THREADS != null) {
+            try {
+                Object builder = VIRTUAL_THREADS[0].invoke(null);
+                builder = VIRTUAL_THREADS[1].invoke(builder, name + "-", 1L);
+                final ThreadFactory factory = (ThreadFactory) VIRTUAL_THREADS[2].invoke(builder);
+                return (ExecutorService) VIRTUAL_THREADS[3].invoke(null, factory);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // fall back to platform threads
+            }
+        }
+
+        return newBoundedExecutor(maxThreads, name);
+    }
+
+    /**
+     * @return true if {@link #newFanOutExecutor(int, String)} runs tasks on virtual threads.
+     */
+    public static boolean isVirtualThreadExecutor() {
+        return VIRTUAL_THREADS != null;
+    }
+
+    private static Method[] findVirtualThreads() {
+        try {
+            final Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            // throws on runtimes where virtual threads are still a preview feature
+            ofVirtual.invoke(null);
+
+            return new Method[]{
+                    ofVirtual,
+                    builder.getMethod("name", String.class, long.class),
+                    builder.getMethod("factory"),
+                    Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+            };
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param name Prefix for the names of the created threads.
+     * @return a factory producing daemon threads.
+     */
+    public static ThreadFactory newThreadFactory(final String name) {
+        final AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.browserstack.automate;
+
+import com.browserstack.automate.model.Build;
+import com.browserstack.client.CircuitBreaker;
+import com.browserstack.client.HttpTransportConfig;
+import com.browserstack.client.RecordingTransport;
+import com.browserstack.client.exception.BrowserStackException;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncAutomateClientTest {
+
+  private static final String BUILD = "{\"automation_build\":{\"hashed_id\":\"b1\",\"name\":\"nightly\","
+      + "\"status\":\"done\",\"duration\":12}}";
+
+  static AutomateClient newClient(RecordingTransport transport) {
+    AutomateClient client = new AutomateClient("user", "key",
+        new HttpTransportConfig().setTransport(transport));
+    client.setCircuitBreaker(new CircuitBreaker());
+    return client;
+  }
+
+  @Test
+  public void testCallRunsOnExecutor() throws Exception {
+    AtomicReference<Thread> worker = new AtomicReference<>();
+    RecordingTransport transport = new RecordingTransport(request -> {
+      worker.set(Thread.currentThread());
+      return RecordingTransport.response(200, BUILD);
+    });
+
+    try (AsyncAutomateClient client = new AsyncAutomateClient(newClient(transport), 2)) {
+      Build build = client.getBuild("b1").get(5, TimeUnit.SECONDS);
+      assertEquals("b1", build.getId());
+      assertEquals("nightly", build.getName());
+      assertTrue(transport.getRequests().get(0).hasPath("/automate/builds/b1.json"));
+      assertNotSame(Thread.currentThread(), worker.get());
+    }
+  }
+
+  @Test
+  public void testFailureCompletesExceptionally() throws Exception {
+    RecordingTransport transport = RecordingTransport.json(403, "{\"message\":\"forbidden\"}");
+
+    try (AsyncAutomateClient client = new AsyncAutomateClient(newClient(transport), 2)) {
+      client.getBuild("missing").get(5, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof BrowserStackException);
+      assertEquals(1, transport.getRequestCount());
+    }
+  }
+
+  @Test
+  public void testCallerExecutorIsUsed() throws Exception {
+    RecordingTransport transport = RecordingTransport.json(200, BUILD);
+    AtomicReference<Thread> worker = new AtomicReference<>();
+
+    AsyncAutomateClient client = new AsyncAutomateClient(newClient(transport), runnable -> {
+      worker.set(Thread.currentThread());
+      runnable.run();
+    });
+
+    assertTrue(client.getBuild("b1").isDone());
+    assertSame(Thread.currentThread(), worker.get());
+
+    // the executor belongs to the caller and keeps working after close
+    client.close();
+    assertEquals("b1", client.getBuild("b1").get().getId());
+  }
+
+  @Test
+  public void testCallAfterCloseIsRejected() throws Exception {
+    AsyncAutomateClient client = new AsyncAutomateClient(newClient(RecordingTransport.json(200, BUILD)), 1);
+    client.close();
+
+    try {
+      client.getBuild("b1").get(5, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+  }
+}
@@ -13,6 +13,9 @@ import com.browserstack.client.model.Browser;
 import org.junit.Before;
 import org.junit.Test;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.regex.Pattern;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -182,6 +185,35 @@ public class AutomateClientTest {
     }
   }
 
+  @Test
+  public void testStreamSessions() {
+    try {
+      String buildId = automateClient.getBuilds().get(0).getId();
+      List<Session> sessions = automateClient.getSessions(buildId);
+
+      try (Stream<Session> stream = automateClient.streamSessions(buildId)) {
+        assertEquals("Streamed sessions", sessions.get(0).getId(),
+            stream.limit(sessions.size()).collect(Collectors.toList()).get(0).getId());
+      }
+    } catch (BuildNotFound | AutomateException e) {
+      fail();
+    }
+  }
+
+  @Test
+  public void testGetSessionAsync() {
+    try (AsyncAutomateClient asyncClient = new AsyncAutomateClient(automateClient, 4)) {
+      Build build = asyncClient.getBuilds(1).get().get(0);
+      List<Session> sessions = asyncClient.getSessions(build.getId()).get();
+      assertEquals(automateClient.getSessions(build.getId()).size(), sessions.size());
+
+      Session session = asyncClient.getSession(sessions.get(0).getId()).get();
+      assertEquals(sessions.get(0).getId(), session.getId());
+    } catch (InterruptedException | ExecutionException | BuildNotFound | AutomateException e) {
+      fail();
+    }
+  }
+
   @Test
   public void testGetSessionLogs() {
     // TODO: Verify if logs are non-empty
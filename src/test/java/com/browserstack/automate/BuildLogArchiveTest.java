@@ -0,0 +1,103 @@
+package com.browserstack.automate;
+
+import com.browserstack.client.BatchResult;
+import com.browserstack.client.RecordingTransport;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BuildLogArchiveTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static RecordingTransport transport(int sessionCount, AtomicBoolean failing) {
+    return SessionServer.transport(sessionCount, request -> {
+      String path = request.getPath();
+      String id = path.substring(path.lastIndexOf("/sessions/") + "/sessions/".length(),
+          path.length() - "/logs".length());
+      if (failing.get() && id.equals("s7")) {
+        return RecordingTransport.response(403, "{}");
+      }
+
+      return RecordingTransport.response(200, "log of " + id);
+    });
+  }
+
+  private static int logRequests(RecordingTransport transport) {
+    int count = 0;
+    for (RecordingTransport.Request request : transport.getRequests()) {
+      if (request.getPath().endsWith("/logs")) {
+        count++;
+      }
+    }
+
+    return count;
+  }
+
+  private static String read(Path file) throws Exception {
+    return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testArchivesEverySession() throws Exception {
+    AtomicBoolean failing = new AtomicBoolean(true);
+    RecordingTransport transport = transport(150, failing);
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport);
+    Path directory = folder.getRoot().toPath().resolve("build");
+
+    BatchResult<Path> result = client.archiveBuildLogs("b1", directory, false, 8);
+    assertEquals(149, result.getSucceeded().size());
+    assertTrue(result.getFailed().containsKey("s7"));
+    assertEquals("log of s0", read(directory.resolve("s0.log")));
+    assertEquals("log of s149", read(directory.resolve("s149.log")));
+    assertFalse(Files.exists(directory.resolve("s7.log")));
+    assertEquals(149, directory.toFile().list().length);
+    assertEquals(150, logRequests(transport));
+
+    // a second run only downloads what is missing
+    failing.set(false);
+    result = client.archiveBuildLogs("b1", directory, false, 8);
+    assertTrue(result.isSuccessful());
+    assertEquals(150, result.size());
+    assertEquals("log of s7", read(directory.resolve("s7.log")));
+    assertEquals(151, logRequests(transport));
+    client.close();
+  }
+
+  @Test
+  public void testGzip() throws Exception {
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport(3, new AtomicBoolean()));
+    Path directory = folder.getRoot().toPath();
+
+    BatchResult<Path> result = client.archiveBuildLogs("b1", directory, true, 2);
+    assertTrue(result.isSuccessful());
+
+    Path file = result.getSucceeded().get("s1");
+    assertEquals(directory.resolve("s1.log.gz"), file);
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[256];
+      int length;
+      while ((length = in.read(buffer)) != -1) {
+        out.write(buffer, 0, length);
+      }
+
+      assertEquals("log of s1", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    client.close();
+  }
+}
@@ -0,0 +1,146 @@
+package com.browserstack.automate;
+
+import com.browserstack.automate.exception.AutomateException;
+import com.browserstack.client.RecordingTransport;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelSlotGovernorTest {
+
+  private static RecordingTransport transport(AtomicBoolean failing, int running) {
+    return new RecordingTransport(request -> failing.get()
+        ? RecordingTransport.response(403, "{\"message\":\"forbidden\"}")
+        : RecordingTransport.response(200, "{\"automate_plan\":\"Automate Pro\","
+            + "\"parallel_sessions_running\":" + running + ",\"parallel_sessions_max_allowed\":2}"));
+  }
+
+  @Test
+  public void testLeasesFreeSlots() throws Exception {
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport(new AtomicBoolean(), 0));
+    try (ParallelSlotGovernor governor = new ParallelSlotGovernor(client).setPollInterval(10, 20)) {
+      ParallelSlotGovernor.Lease first = governor.tryAcquire(5, TimeUnit.SECONDS);
+      assertNotNull(first);
+      assertNotNull(governor.tryAcquire(5, TimeUnit.SECONDS));
+      assertEquals(2, governor.getMaxAllowed());
+      assertEquals(2, governor.getLeased());
+      assertNull(governor.tryAcquire());
+
+      first.close();
+      first.close();
+      assertEquals(1, governor.getLeased());
+      assertNotNull(governor.tryAcquire());
+    }
+
+    client.close();
+  }
+
+  @Test
+  public void testSessionsOfOtherMachinesTakeSlots() throws Exception {
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport(new AtomicBoolean(), 1));
+    try (ParallelSlotGovernor governor = new ParallelSlotGovernor(client).setPollInterval(10, 20)) {
+      assertNotNull(governor.tryAcquire(5, TimeUnit.SECONDS));
+      assertNull(governor.tryAcquire(50, TimeUnit.MILLISECONDS));
+    }
+
+    client.close();
+  }
+
+  @Test
+  public void testWaitersFailWhenPollsFail() throws Exception {
+    RecordingTransport transport = transport(new AtomicBoolean(true), 0);
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport);
+    try (ParallelSlotGovernor governor = new ParallelSlotGovernor(client)
+        .setPollInterval(10, 20).setMaxFailedPolls(3)) {
+      long start = System.nanoTime();
+      try {
+        governor.acquire();
+        fail("Expected AutomateException");
+      } catch (AutomateException e) {
+        assertTrue(governor.getLastError() != null);
+      }
+
+      assertTrue(transport.getRequestCount() >= 3);
+      assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+
+      // later callers fail right away while polls keep failing
+      try {
+        governor.tryAcquire(1, TimeUnit.MINUTES);
+        fail("Expected AutomateException");
+      } catch (AutomateException e) {
+        // expected
+      }
+    }
+
+    client.close();
+  }
+
+  @Test
+  public void testRecoversOncePollsSucceed() throws Exception {
+    AtomicBoolean failing = new AtomicBoolean(true);
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport(failing, 0));
+    try (ParallelSlotGovernor governor = new ParallelSlotGovernor(client)
+        .setPollInterval(10, 20).setMaxFailedPolls(1)) {
+      try {
+        governor.tryAcquire(5, TimeUnit.SECONDS);
+        fail("Expected AutomateException");
+      } catch (AutomateException e) {
+        // expected
+      }
+
+      failing.set(false);
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (governor.getLastError() != null && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+
+      assertNotNull(governor.tryAcquire(5, TimeUnit.SECONDS));
+    }
+
+    client.close();
+  }
+
+  @Test
+  public void testCloseWakesWaiters() throws Exception {
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport(new AtomicBoolean(), 2));
+    ParallelSlotGovernor governor = new ParallelSlotGovernor(client).setPollInterval(10, 20);
+
+    CompletableFuture<ParallelSlotGovernor.Lease> waiter = CompletableFuture.supplyAsync(() -> {
+      try {
+        return governor.acquire();
+      } catch (AutomateException | InterruptedException e) {
+        throw new IllegalStateException("unexpected", e);
+      }
+    });
+
+    Thread.sleep(50);
+    governor.close();
+    try {
+      waiter.get(5, TimeUnit.SECONDS);
+      fail("Expected IllegalStateException");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    client.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaxFailedPolls() {
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport(new AtomicBoolean(), 0));
+    try (ParallelSlotGovernor governor = new ParallelSlotGovernor(client)) {
+      governor.setMaxFailedPolls(0);
+    } finally {
+      client.close();
+    }
+  }
+}
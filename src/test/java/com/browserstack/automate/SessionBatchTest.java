@@ -0,0 +1,105 @@
+package com.browserstack.automate;
+
+import com.browserstack.automate.Automate.SessionStatus;
+import com.browserstack.automate.model.Session;
+import com.browserstack.client.BatchResult;
+import com.browserstack.client.RecordingTransport;
+import com.browserstack.client.exception.BrowserStackException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SessionBatchTest {
+
+  private static RecordingTransport transport(String failingId) {
+    return new RecordingTransport(request -> {
+      String path = request.getPath();
+      String id = path.substring(path.lastIndexOf('/') + 1, path.length() - ".json".length());
+      if (id.equals(failingId)) {
+        return RecordingTransport.response(403, "{\"message\":\"forbidden\"}");
+      }
+
+      return RecordingTransport.response(200,
+          "{\"automation_session\":{\"hashed_id\":\"" + id + "\",\"status\":\"done\"}}");
+    });
+  }
+
+  @Test
+  public void testFailedUpdateDoesNotStopOthers() {
+    RecordingTransport transport = transport("s2");
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport);
+
+    Map<String, SessionStatus> statuses = new LinkedHashMap<>();
+    for (String id : Arrays.asList("s1", "s2", "s3")) {
+      statuses.put(id, SessionStatus.DONE);
+    }
+
+    BatchResult<Session> result = client.updateSessionStatuses(statuses, "finished");
+    assertFalse(result.isSuccessful());
+    assertEquals(3, result.size());
+    assertEquals("s1", result.getSucceeded().get("s1").getId());
+    assertEquals("s3", result.getSucceeded().get("s3").getId());
+    assertTrue(result.getFailed().containsKey("s2"));
+
+    assertEquals(3, transport.getRequestCount());
+    for (RecordingTransport.Request request : transport.getRequests()) {
+      assertEquals("PUT", request.method);
+      assertTrue(request.body.contains("\"status\":\"done\""));
+      assertTrue(request.body.contains("\"reason\":\"finished\""));
+    }
+
+    client.close();
+  }
+
+  @Test
+  public void testManyUpdatesInParallel() {
+    RecordingTransport transport = transport(null);
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport);
+
+    Map<String, Map<String, Object>> updates = new HashMap<>();
+    for (int i = 0; i < 50; i++) {
+      updates.put("s" + i, SessionStatuses.statusData(SessionStatus.ERROR, null));
+    }
+
+    BatchResult<Session> result = client.updateSessionStatuses(updates, 4);
+    assertTrue(result.isSuccessful());
+    assertEquals(50, result.getSucceeded().size());
+    assertEquals(50, transport.getRequestCount());
+    client.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidConcurrency() {
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport(null));
+    try {
+      client.updateSessionStatuses(new HashMap<>(), 0);
+    } finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testRunSequentially() {
+    AtomicInteger calls = new AtomicInteger();
+    BatchResult<Integer> result = BatchResult.runSequentially(Arrays.asList("a", "b", "c"), key -> {
+      calls.incrementAndGet();
+      if (key.equals("b")) {
+        throw new BrowserStackException("failed " + key);
+      }
+
+      return key.length();
+    });
+
+    assertEquals(3, calls.get());
+    assertEquals(Arrays.asList("a", "c"), Arrays.asList(result.getSucceeded().keySet().toArray()));
+    assertEquals("failed b", result.getFailed().get("b").getMessage());
+  }
+}
@@ -0,0 +1,116 @@
+package com.browserstack.automate;
+
+import com.browserstack.automate.exception.AutomateException;
+import com.browserstack.automate.model.Session;
+import com.browserstack.client.RecordingTransport;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class SessionLogsTest {
+
+  private static final String LOGS = logs(20000);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static String logs(int lines) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < lines; i++) {
+      sb.append("2024-01-01 00:00:00:000 REQUEST [GET /session/").append(i).append("/url]\n");
+    }
+
+    return sb.toString();
+  }
+
+  private static RecordingTransport transport(int logStatus, String sessionJson) {
+    return new RecordingTransport(request -> {
+      if (request.getPath().endsWith("/logs")) {
+        return RecordingTransport.response(logStatus, (logStatus == 200) ? LOGS : "{}");
+      }
+
+      return RecordingTransport.response(200, sessionJson);
+    });
+  }
+
+  private static RecordingTransport transport(int logStatus) {
+    return transport(logStatus, "{\"automation_session\":{\"hashed_id\":\"s1\",\"status\":\"done\","
+        + "\"logs\":\"" + SessionServer.LOGS_URL + "s1/logs\"}}");
+  }
+
+  @Test
+  public void testStreamsLogs() throws Exception {
+    RecordingTransport transport = transport(200);
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long written = client.getSessionLogs(client.getSession("s1"), out);
+
+    byte[] expected = LOGS.getBytes(StandardCharsets.UTF_8);
+    assertEquals(expected.length, written);
+    assertArrayEquals(expected, out.toByteArray());
+
+    RecordingTransport.Request request = transport.getRequests().get(1);
+    assertEquals("/automate/sessions/s1/logs", request.getPath());
+    assertEquals("*/*", request.getHeader("Accept"));
+    client.close();
+  }
+
+  @Test
+  public void testDownloadReplacesTarget() throws Exception {
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport(200));
+    Path target = folder.getRoot().toPath().resolve("s1.log");
+    Files.write(target, "old".getBytes(StandardCharsets.UTF_8));
+
+    assertEquals(target, client.downloadSessionLogs(client.getSession("s1"), target));
+    assertEquals(LOGS, new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+    assertEquals(1, folder.getRoot().list().length);
+    client.close();
+  }
+
+  @Test
+  public void testFailedDownloadKeepsTarget() throws Exception {
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport(403));
+    Path target = folder.getRoot().toPath().resolve("s1.log");
+    Files.write(target, "old".getBytes(StandardCharsets.UTF_8));
+
+    try {
+      client.downloadSessionLogs(client.getSession("s1"), target);
+      fail("Expected AutomateException");
+    } catch (AutomateException e) {
+      // expected
+    }
+
+    // the target is untouched and no temporary file is left behind
+    assertEquals("old", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+    assertEquals(1, folder.getRoot().list().length);
+    client.close();
+  }
+
+  @Test
+  public void testSessionWithoutLogs() throws Exception {
+    RecordingTransport transport = transport(200,
+        "{\"automation_session\":{\"hashed_id\":\"s1\",\"status\":\"done\"}}");
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport);
+    Session session = client.getSession("s1");
+
+    try {
+      client.getSessionLogs(session, new ByteArrayOutputStream());
+      fail("Expected AutomateException");
+    } catch (AutomateException e) {
+      assertEquals(404, e.getStatusCode());
+    }
+
+    assertEquals(1, transport.getRequestCount());
+    client.close();
+  }
+}
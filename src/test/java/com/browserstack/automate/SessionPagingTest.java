@@ -0,0 +1,78 @@
+package com.browserstack.automate;
+
+import com.browserstack.automate.model.Session;
+import com.browserstack.client.BrowserStackClientInterface;
+import com.browserstack.client.RecordingTransport;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SessionPagingTest {
+
+  private static List<String> ids(List<Session> sessions) {
+    List<String> ids = new ArrayList<>();
+    for (Session session : sessions) {
+      ids.add(session.getId());
+    }
+    return ids;
+  }
+
+  private static List<String> expectedIds(int count) {
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      ids.add("s" + i);
+    }
+    return ids;
+  }
+
+  @Test
+  public void testParallelPagesKeepOffsetOrder() throws Exception {
+    RecordingTransport transport = SessionServer.transport(450);
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport);
+
+    List<Session> sessions = client.getSessions("b1", null, 1000, 4);
+    assertEquals(expectedIds(450), ids(sessions));
+
+    List<Integer> offsets = new ArrayList<>();
+    for (RecordingTransport.Request request : transport.getRequests()) {
+      offsets.add(SessionServer.offsetOf(request));
+    }
+    Collections.sort(offsets);
+
+    // the short page at 400 ends the fetch; at most `parallelism` pages run past it
+    assertEquals(Integer.valueOf(400), offsets.get(4));
+    assertEquals(offsets.size(), offsets.stream().distinct().count());
+    assertTrue(offsets.size() <= 8);
+    client.close();
+  }
+
+  @Test
+  public void testParallelAndSequentialResultsMatch() throws Exception {
+    AutomateClient client = AsyncAutomateClientTest.newClient(SessionServer.transport(230));
+    assertEquals(ids(client.getSessions("b1", null, 1000)), ids(client.getSessions("b1", null, 1000, 3)));
+    assertEquals(expectedIds(230), ids(client.getSessions("b1", null, 250, 8)));
+    client.close();
+  }
+
+  @Test
+  public void testSequentialStopsAtShortPage() throws Exception {
+    RecordingTransport transport = SessionServer.transport(150);
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport);
+
+    assertEquals(150, client.getSessions("b1", null, 1000, 1).size());
+    assertEquals(2, transport.getRequestCount());
+    client.close();
+  }
+
+  @Test
+  public void testParallelOverloadIsDefaultMethod() throws Exception {
+    // implementations written against earlier releases must keep compiling
+    assertTrue(BrowserStackClientInterface.class.getMethod("getSessions", String.class,
+        Automate.BuildStatus.class, int.class, int.class).isDefault());
+  }
+}
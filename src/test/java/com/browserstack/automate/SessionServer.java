@@ -0,0 +1,59 @@
+package com.browserstack.automate;
+
+import com.browserstack.client.RecordingTransport;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+
+import java.util.function.Function;
+
+/**
+ * Offline stand-in for the sessions endpoint of a build with a fixed number of sessions, served
+ * in offset pages of at most 100 sessions like the REST API.
+ */
+class SessionServer {
+
+  static final int PAGE_SIZE = 100;
+
+  static final String LOGS_URL = "https://api.browserstack.com/automate/sessions/";
+
+  static RecordingTransport transport(final int sessionCount) {
+    return transport(sessionCount, request -> RecordingTransport.response(404, "{}"));
+  }
+
+  /**
+   * @param others Answers the requests which are not for the sessions endpoint, such as the
+   *        session logs at {@code LOGS_URL + sessionId + "/logs"}.
+   */
+  static RecordingTransport transport(final int sessionCount,
+      final Function<RecordingTransport.Request, MockLowLevelHttpResponse> others) {
+    return new RecordingTransport(request -> {
+      if (!request.getPath().endsWith("/sessions.json")) {
+        return others.apply(request);
+      }
+
+      GenericUrl url = new GenericUrl(request.url);
+      int offset = Integer.parseInt(String.valueOf(url.getFirst("offset")));
+      return RecordingTransport.response(200, page(offset, Math.min(PAGE_SIZE, sessionCount - offset)));
+    });
+  }
+
+  static String page(int offset, int count) {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+
+      String id = "s" + (offset + i);
+      json.append("{\"automation_session\":{\"hashed_id\":\"").append(id)
+          .append("\",\"status\":\"done\",\"logs\":\"").append(LOGS_URL).append(id)
+          .append("/logs\"}}");
+    }
+
+    return json.append(']').toString();
+  }
+
+  static int offsetOf(RecordingTransport.Request request) {
+    return Integer.parseInt(String.valueOf(new GenericUrl(request.url).getFirst("offset")));
+  }
+}
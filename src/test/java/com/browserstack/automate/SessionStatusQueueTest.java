@@ -0,0 +1,110 @@
+package com.browserstack.automate;
+
+import com.browserstack.automate.Automate.SessionStatus;
+import com.browserstack.client.RecordingTransport;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SessionStatusQueueTest {
+
+  private static RecordingTransport transport() {
+    return new RecordingTransport(request -> {
+      String path = request.getPath();
+      String id = path.substring(path.lastIndexOf('/') + 1, path.length() - ".json".length());
+      return RecordingTransport.response(200,
+          "{\"automation_session\":{\"hashed_id\":\"" + id + "\",\"status\":\"done\"}}");
+    });
+  }
+
+  private static Set<String> sentIds(RecordingTransport transport) {
+    Set<String> ids = new HashSet<>();
+    for (RecordingTransport.Request request : transport.getRequests()) {
+      String path = request.getPath();
+      ids.add(path.substring(path.lastIndexOf('/') + 1, path.length() - ".json".length()));
+    }
+
+    return ids;
+  }
+
+  @Test
+  public void testLastUpdateWins() {
+    RecordingTransport transport = transport();
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport);
+    SessionStatusQueue queue = new SessionStatusQueue(client, 60000);
+
+    queue.enqueue("s1", SessionStatus.ERROR, "first");
+    queue.enqueue("s1", SessionStatus.DONE, "second");
+    assertEquals(1, queue.size());
+
+    assertTrue(queue.flush().isSuccessful());
+    assertEquals(1, transport.getRequestCount());
+    assertTrue(transport.getRequests().get(0).body.contains("\"reason\":\"second\""));
+
+    queue.close();
+    client.close();
+  }
+
+  @Test
+  public void testRejectsUpdatesAfterClose() {
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport());
+    SessionStatusQueue queue = new SessionStatusQueue(client, 60000);
+    queue.close();
+
+    try {
+      queue.enqueue("s1", SessionStatus.DONE, null);
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    client.close();
+  }
+
+  @Test
+  public void testCloseSendsEveryAcceptedUpdate() throws Exception {
+    for (int round = 0; round < 10; round++) {
+      RecordingTransport transport = transport();
+      AutomateClient client = AsyncAutomateClientTest.newClient(transport);
+      SessionStatusQueue queue = new SessionStatusQueue(client, 1);
+
+      Set<String> accepted = ConcurrentHashMap.newKeySet();
+      CountDownLatch started = new CountDownLatch(4);
+      CountDownLatch done = new CountDownLatch(4);
+      for (int t = 0; t < 4; t++) {
+        final int thread = t;
+        new Thread(() -> {
+          started.countDown();
+          try {
+            for (int i = 0; i < 200; i++) {
+              String id = "t" + thread + "-" + i;
+              queue.enqueue(id, SessionStatus.DONE, null);
+              accepted.add(id);
+            }
+          } catch (IllegalStateException e) {
+            // closed
+          } finally {
+            done.countDown();
+          }
+        }).start();
+      }
+
+      started.await();
+      queue.close();
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+
+      // every update accepted before close has been sent, none is left behind
+      assertEquals(0, queue.size());
+      assertTrue(sentIds(transport).containsAll(accepted));
+      client.close();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.browserstack.automate;
+
+import com.browserstack.automate.model.Session;
+import com.browserstack.client.BrowserStackClientInterface;
+import com.browserstack.client.BrowserStackResponseException;
+import com.browserstack.client.RecordingTransport;
+import com.browserstack.client.exception.BrowserStackException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SessionStreamTest {
+
+  @Test
+  public void testStreamReturnsEverySessionInOrder() {
+    RecordingTransport transport = SessionServer.transport(250);
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport);
+
+    try (Stream<Session> sessions = client.streamSessions("b1")) {
+      List<String> ids = sessions.map(Session::getId).collect(Collectors.toList());
+      assertEquals(250, ids.size());
+      assertEquals("s0", ids.get(0));
+      assertEquals("s249", ids.get(249));
+    }
+
+    assertEquals(3, transport.getRequestCount());
+    client.close();
+  }
+
+  @Test
+  public void testStreamIsLazy() {
+    RecordingTransport transport = SessionServer.transport(1000);
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport);
+
+    try (Stream<Session> sessions = client.streamSessions("b1")) {
+      assertEquals(0, transport.getRequestCount());
+      assertEquals(5, sessions.limit(5).count());
+    }
+
+    // the first page and at most one prefetched page
+    assertTrue(transport.getRequestCount() <= 2);
+    client.close();
+  }
+
+  @Test
+  public void testStreamFailureIsUnchecked() {
+    AutomateClient client = AsyncAutomateClientTest.newClient(RecordingTransport.json(403, "{}"));
+
+    try (Stream<Session> sessions = client.streamSessions("b1")) {
+      sessions.count();
+      fail();
+    } catch (BrowserStackResponseException e) {
+      assertTrue(e.getCause() instanceof BrowserStackException);
+    }
+
+    client.close();
+  }
+
+  @Test
+  public void testForEachSessionIsNotCapped() throws Exception {
+    RecordingTransport transport = SessionServer.transport(1050);
+    AutomateClient client = AsyncAutomateClientTest.newClient(transport);
+    List<String> ids = new ArrayList<>();
+
+    assertEquals(1050, client.forEachSession("b1", null, session -> ids.add(session.getId())));
+    assertEquals("s1049", ids.get(1049));
+    assertEquals(11, transport.getRequestCount());
+    client.close();
+  }
+
+  @Test
+  public void testStreamingMethodsAreDefaultMethods() throws Exception {
+    // implementations written against earlier releases must keep compiling
+    assertTrue(BrowserStackClientInterface.class.getMethod("forEachSession", String.class,
+        Automate.BuildStatus.class, java.util.function.Consumer.class).isDefault());
+    assertTrue(BrowserStackClientInterface.class.getMethod("streamSessions", String.class,
+        Automate.BuildStatus.class).isDefault());
+    assertTrue(BrowserStackClientInterface.class.getMethod("streamSessions", String.class).isDefault());
+  }
+}
@@ -0,0 +1,207 @@
+package com.browserstack.client;
+
+import com.browserstack.automate.AutomateClient;
+import com.browserstack.automate.model.Build;
+import com.browserstack.client.exception.BrowserStackException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BuildWatcherTest {
+
+    private final Map<String, String> statuses = new ConcurrentHashMap<>();
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private AutomateClient client;
+
+    private static String build(final String id, final String status) {
+        return "{\"automation_build\":{\"hashed_id\":\"" + id + "\",\"name\":\"nightly\",\"status\":\""
+                + status + "\",\"duration\":1}}";
+    }
+
+    /**
+     * Serves the builds in {@code statuses}; the listing only holds the builds given.
+     */
+    private RecordingTransport transport(final String... listed) {
+        return new RecordingTransport(request -> {
+            if (request.getPath().endsWith("/builds.json")) {
+                final StringBuilder json = new StringBuilder("[");
+                for (String id : listed) {
+                    json.append((json.length() > 1) ? "," : "").append(build(id, statuses.get(id)));
+                }
+
+                return RecordingTransport.response(200, json.append(']').toString());
+            }
+
+            if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                return RecordingTransport.response(403, "{\"message\":\"forbidden\"}");
+            }
+
+            final String path = request.getPath();
+            final String id = path.substring(path.lastIndexOf('/') + 1, path.length() - ".json".length());
+            return RecordingTransport.response(200, build(id, statuses.get(id)));
+        });
+    }
+
+    private BuildWatcher newWatcher(final RecordingTransport transport) {
+        client = new AutomateClient("user", "key", new HttpTransportConfig().setTransport(transport));
+        client.setCircuitBreaker(new CircuitBreaker());
+        return new BuildWatcher(client).setPollInterval(10, 20);
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private static int requestsTo(final RecordingTransport transport, final String path) {
+        int count = 0;
+        for (RecordingTransport.Request request : transport.getRequests()) {
+            if (request.hasPath(path)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Test
+    public void testBuildsAreBatched() throws Exception {
+        statuses.put("b1", "running");
+        statuses.put("b2", "running");
+        final RecordingTransport transport = transport("b1", "b2");
+
+        final List<String> changes = new CopyOnWriteArrayList<>();
+        try (BuildWatcher watcher = newWatcher(transport)) {
+            watcher.addListener(new BuildWatcher.Listener() {
+                @Override
+                public void onStatusChanged(final Build build, final String previousStatus) {
+                    changes.add(build.getId() + ":" + previousStatus + "->" + build.getStatus());
+                }
+            });
+
+            final CompletableFuture<Build> first = watcher.watch("b1");
+            final CompletableFuture<Build> second = watcher.watch("b2");
+            assertSame(first, watcher.watch("b1"));
+            assertEquals(2, watcher.size());
+
+            Thread.sleep(200);
+            statuses.put("b1", "done");
+            statuses.put("b2", "failed");
+
+            assertEquals("done", first.get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals("failed", second.get(5, TimeUnit.SECONDS).getStatus());
+        }
+
+        assertEquals(0, requestsTo(transport, "/automate/builds/b1.json"));
+        assertEquals(0, requestsTo(transport, "/automate/builds/b2.json"));
+        assertTrue(changes.containsAll(Arrays.asList("b1:null->running", "b1:running->done",
+                "b2:null->running", "b2:running->failed")));
+    }
+
+    @Test
+    public void testBuildMissingFromListingIsFetched() throws Exception {
+        statuses.put("b1", "done");
+        statuses.put("b2", "done");
+        final RecordingTransport transport = transport("b1");
+
+        try (BuildWatcher watcher = newWatcher(transport)) {
+            final CompletableFuture<Build> first = watcher.watch("b1");
+            final CompletableFuture<Build> second = watcher.watch("b2");
+
+            assertEquals("done", first.get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals("done", second.get(5, TimeUnit.SECONDS).getStatus());
+        }
+
+        assertEquals(0, requestsTo(transport, "/automate/builds/b1.json"));
+        assertEquals(1, requestsTo(transport, "/automate/builds/b2.json"));
+    }
+
+    @Test
+    public void testErrorsAreReportedAndRetried() throws Exception {
+        statuses.put("b1", "done");
+        failures.set(2);
+        final RecordingTransport transport = transport();
+
+        final List<BrowserStackException> errors = new CopyOnWriteArrayList<>();
+        try (BuildWatcher watcher = newWatcher(transport)) {
+            watcher.addListener(new BuildWatcher.Listener() {
+                @Override
+                public void onError(final String buildId, final BrowserStackException e) {
+                    errors.add(e);
+                }
+            });
+
+            assertEquals("done", watcher.watch("b1").get(5, TimeUnit.SECONDS).getStatus());
+        }
+
+        assertEquals(2, errors.size());
+        assertEquals(3, requestsTo(transport, "/automate/builds/b1.json"));
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStopOthers() throws Exception {
+        statuses.put("b1", "done");
+        final AtomicInteger finished = new AtomicInteger();
+
+        try (BuildWatcher watcher = newWatcher(transport())) {
+            watcher.addListener(new BuildWatcher.Listener() {
+                @Override
+                public void onFinished(final Build build) {
+                    throw new IllegalStateException("listener failed");
+                }
+            });
+            watcher.addListener(new BuildWatcher.Listener() {
+                @Override
+                public void onFinished(final Build build) {
+                    finished.incrementAndGet();
+                }
+            });
+
+            watcher.watch("b1").get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, finished.get());
+    }
+
+    @Test
+    public void testUnwatchAndCloseCancel() throws Exception {
+        statuses.put("b1", "running");
+        statuses.put("b2", "running");
+
+        final CompletableFuture<Build> first;
+        final CompletableFuture<Build> second;
+        try (BuildWatcher watcher = newWatcher(transport("b1", "b2"))) {
+            first = watcher.watch("b1");
+            second = watcher.watch("b2");
+
+            watcher.unwatch("b1");
+            assertTrue(first.isCancelled());
+            assertEquals(1, watcher.size());
+        }
+
+        assertTrue(second.isCancelled());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBuildId() {
+        try (BuildWatcher watcher = newWatcher(transport())) {
+            watcher.watch(" ");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.browserstack.client;
+
+import com.browserstack.automate.AutomateClient;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        final CircuitBreaker breaker = new CircuitBreaker(2, 60000);
+        breaker.onFailure(breaker.tryAcquire());
+        breaker.onSuccess(breaker.tryAcquire());
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testTrialClosesCircuit() {
+        final CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        breaker.onFailure(breaker.tryAcquire());
+
+        final CircuitBreaker.Permit trial = breaker.tryAcquire();
+        assertNotNull(trial);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire());
+
+        breaker.onSuccess(trial);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testFailedTrialReopensCircuit() {
+        final CircuitBreaker breaker = new CircuitBreaker(1, 60000);
+        breaker.onFailure(breaker.tryAcquire());
+        openTimeElapsed(breaker);
+
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testLateSuccessDoesNotCloseOpenCircuit() {
+        final CircuitBreaker breaker = new CircuitBreaker(1, 60000);
+        final CircuitBreaker.Permit slow = breaker.tryAcquire();
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        breaker.onSuccess(slow);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testLateFailureDoesNotEndTrial() {
+        final CircuitBreaker breaker = new CircuitBreaker(1, 60000);
+        final CircuitBreaker.Permit slow = breaker.tryAcquire();
+        breaker.onFailure(breaker.tryAcquire());
+        openTimeElapsed(breaker);
+
+        final CircuitBreaker.Permit trial = breaker.tryAcquire();
+        assertNotNull(trial);
+
+        // neither the late outcome nor its release frees the trial slot or re-opens the circuit
+        breaker.onFailure(slow);
+        breaker.release(slow);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire());
+
+        breaker.onSuccess(trial);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testLateOutcomeAfterTrialIsIgnored() {
+        final CircuitBreaker breaker = new CircuitBreaker(1, 60000);
+        breaker.onFailure(breaker.tryAcquire());
+        openTimeElapsed(breaker);
+
+        final CircuitBreaker.Permit trial = breaker.tryAcquire();
+        breaker.onSuccess(trial);
+
+        // a second report for the finished trial does not touch the new closed generation
+        breaker.onFailure(trial);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testReleasedTrialAllowsAnother() {
+        final CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        breaker.onFailure(breaker.tryAcquire());
+
+        breaker.release(breaker.tryAcquire());
+        final CircuitBreaker.Permit trial = breaker.tryAcquire();
+        assertNotNull(trial);
+        breaker.onSuccess(trial);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testResetClosesCircuit() {
+        final CircuitBreaker breaker = new CircuitBreaker(1, 60000);
+        breaker.onFailure(breaker.tryAcquire());
+        breaker.reset();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertNotNull(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testSharedBreakerIsOptIn() {
+        final HttpTransportConfig config = new HttpTransportConfig()
+                .setTransport(RecordingTransport.json(200, "{}"));
+        final AutomateClient first = new AutomateClient("user", "key", config);
+        final AutomateClient second = new AutomateClient("other", "key", config);
+        assertNull(first.getCircuitBreaker());
+
+        final CircuitBreaker shared = first.useSharedCircuitBreaker();
+        assertSame(shared, first.getCircuitBreaker());
+        assertNull(second.getCircuitBreaker());
+        assertSame(shared, second.useSharedCircuitBreaker());
+        first.close();
+        second.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThreshold() {
+        new CircuitBreaker(0, 1000);
+    }
+
+    /**
+     * Moves the circuit past its open time without waiting for it.
+     */
+    private static void openTimeElapsed(final CircuitBreaker breaker) {
+        try {
+            final Field openedAt = CircuitBreaker.class.getDeclaredField("openedAt");
+            openedAt.setAccessible(true);
+            synchronized (breaker) {
+                openedAt.setLong(breaker, 0);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
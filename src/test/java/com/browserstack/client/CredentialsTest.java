@@ -0,0 +1,51 @@
+package com.browserstack.client;
+
+import com.browserstack.automate.AutomateClient;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.Assert.assertEquals;
+
+public class CredentialsTest {
+
+    private static String basic(final String username, final String accessKey) {
+        return "Basic " + Base64.getEncoder().encodeToString(
+                (username + ":" + accessKey).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRequestsAreSignedWithCurrentKey() throws Exception {
+        final RecordingTransport transport = RecordingTransport.json(200, "[]");
+        final AutomateClient client = new AutomateClient(" user ", " key ",
+                new HttpTransportConfig().setTransport(transport));
+
+        final BrowserStackRequest before = client.newRequest(BrowserStackClient.Method.GET, "/builds.json");
+        assertEquals(basic("user", "key"), before.getHttpRequest().getHeaders().getAuthorization());
+
+        client.setAccessKey("rotated");
+        final BrowserStackRequest after = client.newRequest(BrowserStackClient.Method.GET, "/builds.json");
+        assertEquals(basic("user", "rotated"), after.getHttpRequest().getHeaders().getAuthorization());
+
+        // a request signed before the rotation keeps its header
+        assertEquals(basic("user", "key"), before.getHttpRequest().getHeaders().getAuthorization());
+        client.close();
+    }
+
+    @Test
+    public void testHeaderIsSent() throws Exception {
+        final RecordingTransport transport = RecordingTransport.json(200, "[]");
+        final AutomateClient client = new AutomateClient("user", "key",
+                new HttpTransportConfig().setTransport(transport));
+        client.setCircuitBreaker(new CircuitBreaker());
+
+        client.getBuilds();
+        client.setAccessKey("rotated");
+        client.getBuilds();
+
+        assertEquals(basic("user", "key"), transport.getRequests().get(0).getHeader("Authorization"));
+        assertEquals(basic("user", "rotated"), transport.getRequests().get(1).getHeader("Authorization"));
+        client.close();
+    }
+}
@@ -0,0 +1,76 @@
+package com.browserstack.client;
+
+import com.browserstack.automate.AutomateClient;
+import com.browserstack.automate.model.Build;
+import com.browserstack.automate.model.BuildNode;
+import com.browserstack.client.exception.BrowserStackException;
+import com.google.api.client.http.GenericUrl;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class ElementStreamingTest {
+
+    private static BrowserStackRequest request(final RecordingTransport transport) throws Exception {
+        return new BrowserStackRequest(transport.createRequestFactory()
+                .buildGetRequest(new GenericUrl("https://api.example.com/builds.json")));
+    }
+
+    @Test
+    public void testElementsAreHandedOverInOrder() throws Exception {
+        final RecordingTransport transport = RecordingTransport.json(200,
+                "[{\"automation_build\":{\"hashed_id\":\"b1\"}},null,{\"automation_build\":{\"hashed_id\":\"b2\"}}]");
+        final List<BuildNode> nodes = new ArrayList<>();
+
+        assertEquals(3, request(transport).forEachElement(BuildNode.class, nodes::add));
+        assertEquals("b1", nodes.get(0).getBuild().getId());
+        assertNull(nodes.get(1));
+        assertEquals("b2", nodes.get(2).getBuild().getId());
+    }
+
+    @Test
+    public void testEmptyArray() throws Exception {
+        assertEquals(0, request(RecordingTransport.json(200, "[]")).forEachElement(BuildNode.class, node -> fail()));
+    }
+
+    @Test
+    public void testObjectResponseIsRejected() throws Exception {
+        try {
+            request(RecordingTransport.json(200, "{\"message\":\"oops\"}")).forEachElement(BuildNode.class, node -> fail());
+            fail();
+        } catch (BrowserStackException e) {
+            assertEquals("Expected a JSON array in response", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testTruncatedArrayFailsAfterDecodedElements() throws Exception {
+        final List<BuildNode> nodes = new ArrayList<>();
+        try {
+            request(RecordingTransport.json(200, "[{\"automation_build\":{\"hashed_id\":\"b1\"}},"))
+                    .forEachElement(BuildNode.class, nodes::add);
+            fail();
+        } catch (BrowserStackException e) {
+            assertEquals(1, nodes.size());
+        }
+    }
+
+    @Test
+    public void testGetBuildsSkipsEmptyNodes() throws Exception {
+        final AutomateClient client = new AutomateClient("user", "key", new HttpTransportConfig()
+                .setTransport(RecordingTransport.json(200,
+                        "[{\"automation_build\":{\"hashed_id\":\"b1\",\"status\":\"running\"}},{},null]")));
+        client.setCircuitBreaker(new CircuitBreaker());
+
+        final List<Build> builds = client.getBuilds();
+        assertEquals(1, builds.size());
+        assertEquals("b1", builds.get(0).getId());
+        assertEquals("running", builds.get(0).getStatus());
+        client.close();
+    }
+}
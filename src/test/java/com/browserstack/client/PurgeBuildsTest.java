@@ -0,0 +1,146 @@
+package com.browserstack.client;
+
+import com.browserstack.automate.Automate.BuildStatus;
+import com.browserstack.automate.AutomateClient;
+import com.browserstack.automate.model.Build;
+import com.browserstack.client.exception.BrowserStackException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PurgeBuildsTest {
+
+    private static final String OLD = "2020-01-01T00:00:00.000Z";
+
+    private static String build(final String id, final String status, final String createdAt) {
+        return "{\"automation_build\":{\"hashed_id\":\"" + id + "\",\"name\":\"nightly-" + id
+                + "\",\"status\":\"" + status + "\""
+                + ((createdAt != null) ? ",\"created_at\":\"" + createdAt + "\"" : "") + "}}";
+    }
+
+    private static final String BUILDS = "[" + String.join(",",
+            build("b1", "failed", OLD),
+            build("b2", "done", OLD),
+            build("b3", "failed", Instant.now().toString()),
+            build("b4", "failed", null),
+            build("b5", "failed", "yesterday")) + "]";
+
+    private static RecordingTransport transport() {
+        return new RecordingTransport(request -> "GET".equals(request.method)
+                ? RecordingTransport.response(200, BUILDS)
+                : RecordingTransport.response(200, "{\"status\":\"ok\"}"));
+    }
+
+    private static AutomateClient newClient(final RecordingTransport transport) {
+        final AutomateClient client = new AutomateClient("user", "key",
+                new HttpTransportConfig().setTransport(transport));
+        client.setCircuitBreaker(new CircuitBreaker());
+        return client;
+    }
+
+    private static final class RecordingListener implements PurgePolicy.Listener {
+        final List<String> skipped = Collections.synchronizedList(new ArrayList<>());
+        final List<String> deleted = Collections.synchronizedList(new ArrayList<>());
+        int scanned = -1;
+        int matched = -1;
+
+        @Override
+        public void onScanned(final int scanned, final int matched) {
+            this.scanned = scanned;
+            this.matched = matched;
+        }
+
+        @Override
+        public void onSkipped(final Build build) {
+            skipped.add(build.getId());
+        }
+
+        @Override
+        public void onDeleted(final Build build) {
+            deleted.add(build.getId());
+        }
+    }
+
+    private static PurgePolicy oldFailedBuilds(final RecordingListener listener) {
+        return new PurgePolicy()
+                .setOlderThan(30, TimeUnit.DAYS)
+                .setNamePattern(Pattern.compile("nightly-.*"))
+                .setFilter(build -> "failed".equals(build.getStatus()))
+                .setListener(listener);
+    }
+
+    @Test
+    public void testDryRunDeletesNothing() throws BrowserStackException {
+        final RecordingTransport transport = transport();
+        final AutomateClient client = newClient(transport);
+        final RecordingListener listener = new RecordingListener();
+
+        final BatchResult<Build> result = client.purgeBuilds(oldFailedBuilds(listener).setDryRun(true));
+        assertEquals(Collections.singleton("b1"), result.getSucceeded().keySet());
+        assertEquals(5, listener.scanned);
+        assertEquals(1, listener.matched);
+        assertEquals(Collections.singletonList("b1"), listener.deleted);
+
+        for (RecordingTransport.Request request : transport.getRequests()) {
+            assertEquals("GET", request.method);
+        }
+
+        client.close();
+    }
+
+    @Test
+    public void testUndatedBuildsAreSkippedAndReported() throws BrowserStackException {
+        final RecordingTransport transport = transport();
+        final AutomateClient client = newClient(transport);
+        final RecordingListener listener = new RecordingListener();
+
+        final BatchResult<Build> result = client.purgeBuilds(oldFailedBuilds(listener));
+        assertTrue(result.isSuccessful());
+        assertEquals(Collections.singleton("b1"), result.getSucceeded().keySet());
+        assertEquals(2, listener.skipped.size());
+        assertTrue(listener.skipped.containsAll(Arrays.asList("b4", "b5")));
+
+        int deletes = 0;
+        for (RecordingTransport.Request request : transport.getRequests()) {
+            if ("DELETE".equals(request.method)) {
+                deletes++;
+                assertTrue(request.hasPath("/automate/builds/b1.json"));
+            }
+        }
+
+        assertEquals(1, deletes);
+        client.close();
+    }
+
+    @Test
+    public void testUndatedBuildsNotMatchingOtherCriteriaAreNotReported() throws Exception {
+        final PurgePolicy policy = new PurgePolicy().setOlderThan(1, TimeUnit.DAYS).setStatus(BuildStatus.DONE);
+        final ObjectMapper mapper = new ObjectMapper();
+        final Build failed = mapper.readValue("{\"hashed_id\":\"b4\",\"status\":\"failed\"}", Build.class);
+        final Build done = mapper.readValue("{\"hashed_id\":\"b4\",\"status\":\"done\"}", Build.class);
+        final Build old = mapper.readValue("{\"hashed_id\":\"b5\",\"status\":\"done\",\"created_at\":\""
+                + OLD + "\"}", Build.class);
+
+        assertEquals(PurgePolicy.Decision.KEEP, policy.evaluate(failed, System.currentTimeMillis()));
+        assertEquals(PurgePolicy.Decision.SKIP, policy.evaluate(done, System.currentTimeMillis()));
+        assertEquals(PurgePolicy.Decision.PURGE, policy.evaluate(old, System.currentTimeMillis()));
+    }
+
+    @Test
+    public void testParseTime() {
+        assertEquals(1577836800000L, PurgePolicy.parseTime(OLD));
+        assertEquals(1577836800000L, PurgePolicy.parseTime("2020-01-01T01:00:00+01:00"));
+        assertEquals(-1, PurgePolicy.parseTime("yesterday"));
+        assertEquals(-1, PurgePolicy.parseTime(null));
+    }
+}
@@ -0,0 +1,113 @@
+package com.browserstack.client;
+
+import com.browserstack.automate.AutomateClient;
+import com.browserstack.automate.exception.AutomateException;
+import com.browserstack.client.exception.BrowserStackRateLimitException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RateLimiterTest {
+
+    @Test
+    public void testBurstIsServedImmediately() throws Exception {
+        final RateLimiter limiter = new RateLimiter(1, 3, 1, 1)
+                .setAcquireMode(RateLimiter.AcquireMode.FAIL_FAST, 0);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("GET");
+        }
+
+        try {
+            limiter.acquire("GET");
+            fail("Expected BrowserStackRateLimitException");
+        } catch (BrowserStackRateLimitException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testReadsAndWritesUseSeparateBuckets() throws Exception {
+        final RateLimiter limiter = new RateLimiter(1, 1)
+                .setAcquireMode(RateLimiter.AcquireMode.FAIL_FAST, 0);
+
+        limiter.acquire("GET");
+        limiter.acquire("PUT");
+
+        try {
+            limiter.acquire("DELETE");
+            fail("Expected BrowserStackRateLimitException");
+        } catch (BrowserStackRateLimitException e) {
+            // expected, PUT and DELETE share the write bucket
+        }
+    }
+
+    @Test
+    public void testBlockWaitsForRefill() throws Exception {
+        final RateLimiter limiter = new RateLimiter(20, 1, 20, 1);
+        limiter.acquire("GET");
+
+        final long start = System.nanoTime();
+        limiter.acquire("GET");
+        final long waited = (System.nanoTime() - start) / 1000000;
+        assertTrue("waited " + waited + "ms", waited >= 30);
+    }
+
+    @Test
+    public void testTimeoutFailsWhenWaitIsTooLong() throws Exception {
+        final RateLimiter limiter = new RateLimiter(1, 1)
+                .setAcquireMode(RateLimiter.AcquireMode.TIMEOUT, 10);
+        limiter.acquire("GET");
+
+        final long start = System.nanoTime();
+        try {
+            limiter.acquire("GET");
+            fail("Expected BrowserStackRateLimitException");
+        } catch (BrowserStackRateLimitException e) {
+            // fails without waiting for the refill
+            assertTrue((System.nanoTime() - start) / 1000000 < 500);
+        }
+    }
+
+    @Test
+    public void testClientRequestsAreLimited() throws Exception {
+        final RecordingTransport transport = RecordingTransport.json(200, "[]");
+        final AutomateClient client = new AutomateClient("user", "key",
+                new HttpTransportConfig().setTransport(transport));
+        client.setCircuitBreaker(new CircuitBreaker());
+        client.setRateLimiter(new RateLimiter(1, 1).setAcquireMode(RateLimiter.AcquireMode.FAIL_FAST, 0));
+
+        client.getBuilds();
+        try {
+            client.getBuilds();
+            fail("Expected AutomateException");
+        } catch (AutomateException e) {
+            // expected
+        }
+
+        // the rejected request never reached the transport
+        assertEquals(1, transport.getRequestCount());
+        client.close();
+    }
+
+    @Test
+    public void testSharedLimiterPerUsername() {
+        final RateLimiter limiter = RateLimiter.forUsername(" shared-user ", 5, 5);
+        assertSame(limiter, RateLimiter.forUsername("shared-user", 10, 10));
+        assertNotSame(limiter, RateLimiter.forUsername("other-user", 5, 5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRate() {
+        new RateLimiter(0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidUsername() {
+        RateLimiter.forUsername(" ", 1, 1);
+    }
+}
@@ -0,0 +1,112 @@
+package com.browserstack.client;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Offline transport answering every request with the response built by a handler, and recording
+ * the requests it was sent.
+ */
+public class RecordingTransport extends MockHttpTransport {
+
+    private final Function<Request, MockLowLevelHttpResponse> handler;
+
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger shutdowns = new AtomicInteger();
+
+    public RecordingTransport(final Function<Request, MockLowLevelHttpResponse> handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * @return a transport answering every request with the given status and JSON body.
+     */
+    public static RecordingTransport json(final int status, final String body) {
+        return new RecordingTransport(request -> response(status, body));
+    }
+
+    public static MockLowLevelHttpResponse response(final int status, final String body) {
+        return new MockLowLevelHttpResponse()
+                .setStatusCode(status)
+                .setContentType("application/json")
+                .setContent(body);
+    }
+
+    @Override
+    public LowLevelHttpRequest buildRequest(final String method, final String url) {
+        return new MockLowLevelHttpRequest(url) {
+            @Override
+            public LowLevelHttpResponse execute() throws IOException {
+                final Request request = new Request(method, url, getContentAsString(), getHeaders());
+                requests.add(request);
+                final MockLowLevelHttpResponse response = handler.apply(request);
+                if (response == null) {
+                    throw new IOException("Connection refused");
+                }
+
+                return response;
+            }
+        };
+    }
+
+    @Override
+    public void shutdown() throws IOException {
+        shutdowns.incrementAndGet();
+    }
+
+    public List<Request> getRequests() {
+        return requests;
+    }
+
+    public int getRequestCount() {
+        return requests.size();
+    }
+
+    public int getShutdownCount() {
+        return shutdowns.get();
+    }
+
+    public static final class Request {
+        public final String method;
+        public final String url;
+        public final String body;
+        private final Map<String, List<String>> headers;
+
+        Request(final String method, final String url, final String body, final Map<String, List<String>> headers) {
+            this.method = method;
+            this.url = url;
+            this.body = body;
+            this.headers = headers;
+        }
+
+        /**
+         * @return the first value of the header, or null if it was not sent.
+         */
+        public String getHeader(final String name) {
+            final List<String> values = headers.get(name.toLowerCase(Locale.US));
+            return (values == null || values.isEmpty()) ? null : values.get(0);
+        }
+
+        public String getPath() {
+            final int start = url.indexOf('/', url.indexOf("//") + 2);
+            final int end = url.indexOf('?');
+            return url.substring(start, (end < 0) ? url.length() : end);
+        }
+
+        public boolean hasPath(final String path) {
+            return getPath().equals(path);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.browserstack.client;
+
+import com.browserstack.client.exception.BrowserStackException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestCoalescerTest {
+
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+
+    /**
+     * Starts a leader blocked inside its call, then the followers, and releases the leader once
+     * every follower is waiting on it.
+     */
+    private <T> List<Future<T>> runConcurrently(final int followers, final RequestCoalescer.Call<T> call)
+            throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(followers + 1);
+        final CountDownLatch leaderStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Future<T>> results = new ArrayList<>();
+
+        results.add(executor.submit(() -> coalescer.execute("key", () -> {
+            leaderStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new BrowserStackException(e);
+            }
+            return call.call();
+        })));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < followers; i++) {
+            results.add(executor.submit(() -> coalescer.execute("key", call)));
+        }
+
+        // followers find the leader's future before it completes
+        Thread.sleep(100);
+        release.countDown();
+        executor.shutdown();
+        return results;
+    }
+
+    @Test
+    public void testFollowersShareLeaderResult() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final Object result = new Object();
+        final List<Future<Object>> results = runConcurrently(4, () -> {
+            calls.incrementAndGet();
+            return result;
+        });
+
+        for (Future<Object> future : results) {
+            assertSame(result, future.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testFollowersShareLeaderException() throws Exception {
+        final BrowserStackException failure = new BrowserStackException("unavailable", 503);
+        final List<Future<Object>> results = runConcurrently(3, () -> {
+            throw failure;
+        });
+
+        for (Future<Object> future : results) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertSame(failure, e.getCause());
+            }
+        }
+    }
+
+    @Test
+    public void testFollowersAreReleasedWhenLeaderThrowsError() throws Exception {
+        final AssertionError failure = new AssertionError("boom");
+        final List<Future<Object>> results = runConcurrently(3, () -> {
+            throw failure;
+        });
+
+        for (Future<Object> future : results) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertSame(failure, e.getCause());
+            }
+        }
+    }
+
+    @Test
+    public void testCompletedCallIsNotCached() throws BrowserStackException {
+        final AtomicInteger calls = new AtomicInteger();
+        coalescer.execute("key", calls::incrementAndGet);
+        coalescer.execute("key", calls::incrementAndGet);
+        assertEquals(2, calls.get());
+    }
+}
@@ -0,0 +1,120 @@
+package com.browserstack.client;
+
+import com.browserstack.automate.AutomateClient;
+import com.browserstack.client.exception.BrowserStackException;
+import com.google.api.client.http.HttpHeaders;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RetryPolicyTest {
+
+    private static AutomateClient newClient(final RecordingTransport transport, final RetryPolicy policy) {
+        final AutomateClient client = new AutomateClient("user", "key",
+                new HttpTransportConfig().setTransport(transport));
+        client.setCircuitBreaker(new CircuitBreaker());
+        client.setRetryPolicy(policy);
+        return client;
+    }
+
+    @Test
+    public void testRetriesUnavailableResponse() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final RecordingTransport transport = new RecordingTransport(request ->
+                (calls.incrementAndGet() == 1) ? RecordingTransport.response(503, "{}")
+                        : RecordingTransport.response(200, "[]"));
+        final AutomateClient client = newClient(transport, new RetryPolicy().setDelay(0, 0));
+
+        client.getBuilds();
+        assertEquals(2, transport.getRequestCount());
+        client.close();
+    }
+
+    @Test
+    public void testUnkeyedRequestsShareBudget() throws Exception {
+        final RecordingTransport transport = RecordingTransport.json(503, "{}");
+        final AutomateClient client = newClient(transport,
+                new RetryPolicy().setDelay(0, 0).setRetryBudget(1, 60000));
+
+        for (String id : new String[]{"1a2b3c", "4d5e6f"}) {
+            try {
+                client.newRequest(BrowserStackClient.Method.GET,
+                        "https://api.browserstack.com/automate/sessions/" + id + "/logs", false).asString();
+                fail("Expected failure");
+            } catch (BrowserStackException e) {
+                // expected
+            }
+        }
+
+        // the first request spent the only retry, the second is not retried
+        assertEquals(3, transport.getRequestCount());
+        client.close();
+    }
+
+    @Test
+    public void testEndpointNormalisesIds() {
+        assertEquals("GET /automate/sessions/{id}/logs",
+                RetryPolicy.endpointOf("GET", "/automate/sessions/1a2b3c/logs"));
+        assertEquals("PUT /automate/sessions/{id}.json",
+                RetryPolicy.endpointOf("PUT", "/automate/sessions/1a2b3c.json"));
+        assertEquals("GET /automate/builds.json", RetryPolicy.endpointOf("GET", "/automate/builds.json"));
+        assertEquals("GET ", RetryPolicy.endpointOf("GET", null));
+    }
+
+    @Test
+    public void testBudgetsAreBounded() {
+        final RetryPolicy policy = new RetryPolicy().setRetryBudget(1, 60000);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(policy.tryAcquireRetry("GET /route" + i) || i >= 256);
+        }
+
+        assertTrue(policy.getBudgetCount() <= 257);
+
+        // endpoints beyond the bound share a budget, which is spent by now
+        assertFalse(policy.tryAcquireRetry("GET /other"));
+    }
+
+    @Test
+    public void testExpiredBudgetsAreDropped() throws Exception {
+        final RetryPolicy policy = new RetryPolicy().setRetryBudget(1, 1);
+        for (int i = 0; i < 256; i++) {
+            policy.tryAcquireRetry("GET /route" + i);
+        }
+
+        Thread.sleep(5);
+        assertTrue(policy.tryAcquireRetry("GET /other"));
+        assertEquals(1, policy.getBudgetCount());
+    }
+
+    @Test
+    public void testBudgetResetsAfterWindow() throws Exception {
+        final RetryPolicy policy = new RetryPolicy().setRetryBudget(1, 20);
+        assertTrue(policy.tryAcquireRetry("GET /builds.json"));
+        assertFalse(policy.tryAcquireRetry("GET /builds.json"));
+
+        Thread.sleep(40);
+        assertTrue(policy.tryAcquireRetry("GET /builds.json"));
+    }
+
+    @Test
+    public void testNextDelayWithinBounds() {
+        final RetryPolicy policy = new RetryPolicy().setDelay(100, 1000);
+        long delay = 0;
+        for (int i = 0; i < 50; i++) {
+            delay = policy.nextDelay(delay);
+            assertTrue(delay >= 100 && delay <= 1000);
+        }
+    }
+
+    @Test
+    public void testRetryAfter() {
+        assertEquals(2000, RetryPolicy.retryAfter(new HttpHeaders().set("Retry-After", "2")));
+        assertEquals(-1, RetryPolicy.retryAfter(new HttpHeaders().set("Retry-After", "soon")));
+        assertEquals(-1, RetryPolicy.retryAfter(new HttpHeaders()));
+    }
+}
@@ -0,0 +1,80 @@
+package com.browserstack.client;
+
+import com.google.api.client.http.GenericUrl;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class RouteTemplateTest {
+
+    private static final String SESSIONS = "https://api.example.com/automate/builds/{buildId}/sessions.json";
+
+    @Test
+    public void testExpandsPlaceholder() {
+        final RouteTemplate route = RouteTemplate.compile(SESSIONS);
+        final GenericUrl url = route.newUrl();
+        final String[] values = new String[route.variableCount()];
+
+        values[route.indexOf("buildId")] = "abc123";
+        route.expand(url, route.indexOf("buildId"), values);
+
+        assertEquals("https://api.example.com/automate/builds/abc123/sessions.json", url.build());
+    }
+
+    @Test
+    public void testNewUrlIsIndependentCopy() {
+        final RouteTemplate route = RouteTemplate.compile(SESSIONS);
+        final GenericUrl first = route.newUrl();
+        route.expand(first, 0, new String[]{"first"});
+
+        assertEquals(SESSIONS.replace("{", "%7B").replace("}", "%7D"), route.newUrl().build());
+        assertEquals(SESSIONS, route.getTemplate());
+    }
+
+    @Test
+    public void testSeveralPlaceholdersInOnePart() {
+        final RouteTemplate route = RouteTemplate.compile("https://api.example.com/{name}-{version}.json");
+        assertEquals(2, route.variableCount());
+
+        final GenericUrl url = route.newUrl();
+        final String[] values = new String[2];
+        values[route.indexOf("name")] = "app";
+        route.expand(url, route.indexOf("name"), values);
+        values[route.indexOf("version")] = "1.2";
+        route.expand(url, route.indexOf("version"), values);
+
+        assertEquals("https://api.example.com/app-1.2.json", url.build());
+    }
+
+    @Test
+    public void testValuesAreEscapedWhenBuilt() {
+        final RouteTemplate route = RouteTemplate.compile(SESSIONS);
+        final GenericUrl url = route.newUrl();
+        route.expand(url, 0, new String[]{"a b/c"});
+
+        assertEquals("https://api.example.com/automate/builds/a%20b%2Fc/sessions.json", url.build());
+    }
+
+    @Test
+    public void testUnknownPlaceholder() {
+        assertEquals(-1, RouteTemplate.compile(SESSIONS).indexOf("sessionId"));
+    }
+
+    @Test
+    public void testRequestRouteParam() throws Exception {
+        final RouteTemplate route = RouteTemplate.compile(SESSIONS);
+        final BrowserStackRequest request = new BrowserStackRequest(RecordingTransport.json(200, "[]")
+                .createRequestFactory().buildGetRequest(route.newUrl())).withRoute(route);
+
+        request.routeParam("buildId", "b1");
+        assertEquals("/automate/builds/b1/sessions.json", request.getHttpRequest().getUrl().getRawPath());
+
+        try {
+            request.routeParam("sessionId", "s1");
+            fail();
+        } catch (RuntimeException e) {
+            assertEquals("Can't find route parameter name \"sessionId\"", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.browserstack.client;
+
+import com.browserstack.automate.AutomateClient;
+import com.browserstack.client.exception.BrowserStackException;
+import com.google.api.client.http.GenericUrl;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TransportHandleTest {
+
+    private static TransportHandle handle(final RecordingTransport transport) {
+        return new TransportHandle(transport, request -> { }, true);
+    }
+
+    @Test
+    public void testRetiredTransportIsShutDownAfterLastRequest() {
+        final RecordingTransport transport = RecordingTransport.json(200, "{}");
+        final TransportHandle handle = handle(transport);
+
+        assertTrue(handle.acquire());
+        handle.retire(handle(RecordingTransport.json(200, "{}")));
+
+        assertEquals(0, transport.getShutdownCount());
+        assertFalse(handle.acquire());
+
+        handle.release();
+        assertEquals(1, transport.getShutdownCount());
+        assertTrue(handle.isShutdown());
+    }
+
+    @Test
+    public void testIdleTransportIsShutDownWhenRetired() {
+        final RecordingTransport transport = RecordingTransport.json(200, "{}");
+        handle(transport).retire(null);
+        assertEquals(1, transport.getShutdownCount());
+    }
+
+    @Test
+    public void testSharedTransportIsNeverShutDown() {
+        final RecordingTransport transport = RecordingTransport.json(200, "{}");
+        final TransportHandle handle = new TransportHandle(transport, request -> { }, false);
+        handle.retire(null);
+        assertEquals(0, transport.getShutdownCount());
+    }
+
+    @Test
+    public void testAcquireMovesToSuccessor() {
+        final TransportHandle first = handle(RecordingTransport.json(200, "{}"));
+        final TransportHandle second = handle(RecordingTransport.json(200, "{}"));
+        final TransportHandle third = handle(RecordingTransport.json(200, "{}"));
+        first.retire(second);
+        second.retire(third);
+
+        assertSame(third, BrowserStackRequest.acquire(first));
+        assertEquals(1, third.getInFlight());
+
+        third.retire(null);
+        third.release();
+        assertNull(BrowserStackRequest.acquire(first));
+    }
+
+    @Test
+    public void testRequestIsRebuiltOnSuccessor() throws Exception {
+        final RecordingTransport oldTransport = RecordingTransport.json(200, "old");
+        final RecordingTransport newTransport = RecordingTransport.json(200, "new");
+        final TransportHandle oldHandle = handle(oldTransport);
+        final TransportHandle newHandle = handle(newTransport);
+
+        final BrowserStackRequest request = new BrowserStackRequest(oldHandle.getRequestFactory()
+                .buildGetRequest(new GenericUrl("https://api.example.com/builds.json")))
+                .header("X-Test", "value")
+                .withTransport(oldHandle);
+        oldHandle.retire(newHandle);
+
+        assertEquals("new", request.asString());
+        assertEquals(0, oldTransport.getRequestCount());
+        assertEquals(1, newTransport.getRequestCount());
+        assertEquals("value", request.getHttpRequest().getHeaders().get("X-Test"));
+        assertEquals(0, newHandle.getInFlight());
+    }
+
+    @Test
+    public void testTransportOutlivesRequestInFlight() throws Exception {
+        final TransportHandle[] handles = new TransportHandle[2];
+        final AtomicInteger shutdownsDuringRequest = new AtomicInteger(-1);
+        final RecordingTransport[] transports = new RecordingTransport[1];
+        transports[0] = new RecordingTransport(request -> {
+            handles[0].retire(handles[1]);
+            shutdownsDuringRequest.set(transports[0].getShutdownCount());
+            return RecordingTransport.response(200, "done");
+        });
+        handles[0] = handle(transports[0]);
+        handles[1] = handle(RecordingTransport.json(200, "{}"));
+
+        final BrowserStackRequest request = new BrowserStackRequest(handles[0].getRequestFactory()
+                .buildGetRequest(new GenericUrl("https://api.example.com/builds.json")))
+                .withTransport(handles[0]);
+
+        assertEquals("done", request.asString());
+        assertEquals(0, shutdownsDuringRequest.get());
+        assertEquals(1, transports[0].getShutdownCount());
+    }
+
+    @Test
+    public void testSetProxyReplacesAndClearsProxy() throws BrowserStackException {
+        final RecordingTransport transport = RecordingTransport.json(200, "ok");
+        final AutomateClient client = new AutomateClient("user", "key",
+                new HttpTransportConfig().setTransport(transport));
+
+        // clearing a proxy that was never set is a no-op
+        client.setProxy(null, 0, null, null);
+        assertFalse(client.getTransportConfig().hasProxy());
+
+        final BrowserStackRequest pending = client.newRequest(BrowserStackClient.Method.GET, "/builds.json");
+        client.setProxy("proxy.example.com", 8080, null, null);
+        assertTrue(client.getTransportConfig().hasProxy());
+        assertEquals("ok", pending.asString());
+
+        client.setProxy(null, 0, null, null);
+        assertFalse(client.getTransportConfig().hasProxy());
+
+        try {
+            client.setProxy("proxy.example.com", 0, null, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Invalid proxyPort", e.getMessage());
+        }
+
+        client.close();
+        assertEquals(0, transport.getShutdownCount());
+    }
+
+    @Test(expected = BrowserStackException.class)
+    public void testClosedClientRejectsRequests() throws BrowserStackException {
+        final AutomateClient client = new AutomateClient("user", "key",
+                new HttpTransportConfig().setTransport(RecordingTransport.json(200, "ok")));
+        final BrowserStackRequest request = client.newRequest(BrowserStackClient.Method.GET, "/builds.json");
+        client.close();
+        request.asString();
+    }
+}
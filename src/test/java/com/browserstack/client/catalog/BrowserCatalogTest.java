@@ -0,0 +1,135 @@
+package com.browserstack.client.catalog;
+
+import com.browserstack.automate.AutomateClient;
+import com.browserstack.client.CircuitBreaker;
+import com.browserstack.client.HttpTransportConfig;
+import com.browserstack.client.RecordingTransport;
+import com.browserstack.client.catalog.BrowserCatalog.Attribute;
+import com.browserstack.client.model.Browser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BrowserCatalogTest {
+
+    static final String BROWSERS = "["
+            + browser("Windows", "11", "chrome", "120.0", null) + ","
+            + browser("Windows", "11", "chrome", "121.0", null) + ","
+            + browser("Windows", "11", "chrome", "122.0", null) + ","
+            + browser("Windows", "11", "firefox", "122.0", null) + ","
+            + browser("Windows", "10", "chrome", "122.0", null) + ","
+            + browser("OS X", "Sonoma", "safari", "17.0", null) + ","
+            + browser("ios", "17", null, null, "iPhone 15") + ","
+            + browser("ios", "17.0", null, null, "iPhone 15 Pro") + ","
+            + browser("ios", "16", null, null, "iPhone 14") + ","
+            + browser("android", "14.0", null, null, "Google Pixel 8") + "]";
+
+    static String browser(final String os, final String osVersion, final String browser,
+                          final String browserVersion, final String device) {
+        return "{\"os\":\"" + os + "\",\"os_version\":\"" + osVersion + "\""
+                + ((browser != null) ? ",\"browser\":\"" + browser + "\"" : "")
+                + ((browserVersion != null) ? ",\"browser_version\":\"" + browserVersion + "\"" : "")
+                + ((device != null) ? ",\"device\":\"" + device + "\"" : "") + "}";
+    }
+
+    static List<Browser> browsers(final String json) throws Exception {
+        return new ObjectMapper().readValue(json, new TypeReference<List<Browser>>() {
+        });
+    }
+
+    private static List<String> devices(final List<CatalogEntry> entries) {
+        final List<String> devices = new ArrayList<>();
+        for (CatalogEntry entry : entries) {
+            devices.add(entry.getDevice());
+        }
+
+        return devices;
+    }
+
+    @Test
+    public void testQueryIgnoresCase() throws Exception {
+        final BrowserCatalog catalog = BrowserCatalog.of(browsers(BROWSERS));
+        assertEquals(10, catalog.size());
+
+        assertEquals(3, catalog.query().os("IOS").count());
+        assertEquals(3, catalog.query().os("windows").osVersion("11").browser("Chrome").count());
+        assertTrue(catalog.query().os("linux").isEmpty());
+    }
+
+    @Test
+    public void testConditionsOnOneAttributeAreAlternatives() throws Exception {
+        final BrowserCatalog catalog = BrowserCatalog.of(browsers(BROWSERS));
+        assertEquals(Arrays.asList("iPhone 15", "iPhone 15 Pro", "iPhone 14", "Google Pixel 8"),
+                devices(catalog.query().os("ios", "android").list()));
+    }
+
+    @Test
+    public void testMissingAttribute() throws Exception {
+        final BrowserCatalog catalog = BrowserCatalog.of(browsers(BROWSERS));
+        assertEquals(4, catalog.query().browser((String) null).count());
+        assertNull(catalog.query().os("ios").first().getBrowser());
+    }
+
+    @Test
+    public void testNumericVersionMatchesTrailingZeros() throws Exception {
+        final BrowserCatalog catalog = BrowserCatalog.of(browsers(BROWSERS));
+        assertEquals(Arrays.asList("iPhone 15", "iPhone 15 Pro"),
+                devices(catalog.query().os("ios").version(Attribute.OS_VERSION, "17").list()));
+    }
+
+    @Test
+    public void testLatestVersions() throws Exception {
+        final BrowserCatalog catalog = BrowserCatalog.of(browsers(BROWSERS));
+        assertEquals(new LinkedHashSet<>(Arrays.asList("121.0", "122.0")),
+                catalog.query().os("Windows").osVersion("11").browser("chrome")
+                        .latest(Attribute.BROWSER_VERSION, 2).distinct(Attribute.BROWSER_VERSION));
+
+        assertEquals("121.0", catalog.query().os("Windows").osVersion("11").browser("chrome")
+                .version(Attribute.BROWSER_VERSION, "latest-1").first().getBrowserVersion());
+    }
+
+    @Test
+    public void testVersionBetween() throws Exception {
+        final BrowserCatalog catalog = BrowserCatalog.of(browsers(BROWSERS));
+        assertEquals(2, catalog.query().browser("chrome").osVersion("11")
+                .versionBetween(Attribute.BROWSER_VERSION, "120", "121").count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidVersionBound() throws Exception {
+        BrowserCatalog.of(browsers(BROWSERS)).query().versionBetween(Attribute.BROWSER_VERSION, "new", null);
+    }
+
+    @Test
+    public void testClientReusesCatalog() throws Exception {
+        final RecordingTransport transport = RecordingTransport.json(200, BROWSERS);
+        final AutomateClient client = new AutomateClient("user", "key",
+                new HttpTransportConfig().setTransport(transport));
+        client.setCircuitBreaker(new CircuitBreaker());
+
+        final BrowserCatalog catalog = client.getBrowserCatalog();
+        assertEquals(10, catalog.size());
+        assertSame(catalog, client.getBrowserCatalog());
+        assertEquals(1, transport.getRequestCount());
+        client.close();
+    }
+
+    @Test
+    public void testValuesAreInterned() throws Exception {
+        final BrowserCatalog catalog = BrowserCatalog.of(browsers(BROWSERS));
+        final List<CatalogEntry> entries = catalog.query().os("Windows").list();
+        assertSame(entries.get(0).getOs(), entries.get(4).getOs());
+        assertEquals(new LinkedHashSet<>(Arrays.asList("Windows", "OS X", "ios", "android")),
+                catalog.values(Attribute.OS));
+    }
+}
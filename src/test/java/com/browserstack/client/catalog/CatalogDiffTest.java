@@ -0,0 +1,134 @@
+package com.browserstack.client.catalog;
+
+import com.browserstack.automate.AutomateClient;
+import com.browserstack.client.BrowserStackClient;
+import com.browserstack.client.CircuitBreaker;
+import com.browserstack.client.HttpTransportConfig;
+import com.browserstack.client.RecordingTransport;
+import com.browserstack.client.util.BrowserStackCache;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.browserstack.client.catalog.BrowserCatalogTest.browser;
+import static com.browserstack.client.catalog.BrowserCatalogTest.browsers;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CatalogDiffTest {
+
+    private static final String CHROME_120 = browser("Windows", "11", "chrome", "120.0", null);
+    private static final String CHROME_121 = browser("Windows", "11", "chrome", "121.0", null);
+    private static final String PIXEL = browser("android", "14.0", null, null, "Google Pixel 8");
+
+    private static CatalogDiff diff(final String... snapshots) throws Exception {
+        return CatalogDiff.between(browsers("[" + snapshots[0] + "]"), browsers("[" + snapshots[1] + "]"));
+    }
+
+    private static String renamed(final String json, final String displayName) {
+        return json.substring(0, json.length() - 1) + ",\"displayName\":\"" + displayName + "\"}";
+    }
+
+    @Test
+    public void testAddedAndRemoved() throws Exception {
+        final CatalogDiff diff = diff(String.join(",", CHROME_120, PIXEL), String.join(",", CHROME_121, PIXEL));
+        assertEquals(1, diff.getAdded().size());
+        assertEquals("121.0", diff.getAdded().get(0).getBrowserVersion());
+        assertEquals(1, diff.getRemoved().size());
+        assertEquals("120.0", diff.getRemoved().get(0).getBrowserVersion());
+        assertTrue(diff.getChanged().isEmpty());
+    }
+
+    @Test
+    public void testIdenticalSnapshotsHaveNoDifferences() throws Exception {
+        final String listing = String.join(",", CHROME_120, CHROME_121, PIXEL);
+        assertTrue(diff(listing, listing).isEmpty());
+    }
+
+    @Test
+    public void testChangedDetails() throws Exception {
+        final CatalogDiff diff = diff(PIXEL, renamed(PIXEL, "Pixel 8"));
+        assertTrue(diff.getAdded().isEmpty());
+        assertTrue(diff.getRemoved().isEmpty());
+        assertEquals(1, diff.getChanged().size());
+        assertEquals("Pixel 8", diff.getChanged().get(0).getAfter().getDisplayName());
+    }
+
+    @Test
+    public void testDuplicatesAreCounted() throws Exception {
+        CatalogDiff diff = diff(String.join(",", PIXEL, PIXEL, CHROME_120), String.join(",", PIXEL, CHROME_120));
+        assertTrue(diff.getAdded().isEmpty());
+        assertEquals(1, diff.getRemoved().size());
+        assertEquals("Google Pixel 8", diff.getRemoved().get(0).getDevice());
+
+        // the unmatched copy is the later one in listing order
+        assertSame(diff.getBefore().getEntries().get(1), diff.getRemoved().get(0));
+
+        diff = diff(PIXEL, String.join(",", PIXEL, PIXEL, PIXEL));
+        assertEquals(2, diff.getAdded().size());
+        assertTrue(diff.getRemoved().isEmpty());
+    }
+
+    @Test
+    public void testDuplicatesWithChangedDetails() throws Exception {
+        final CatalogDiff diff = diff(String.join(",", PIXEL, PIXEL),
+                String.join(",", renamed(PIXEL, "Pixel 8"), PIXEL));
+        assertTrue(diff.getAdded().isEmpty());
+        assertTrue(diff.getRemoved().isEmpty());
+        assertEquals(1, diff.getChanged().size());
+    }
+
+    @Test
+    public void testListenerSeesListingFetchedAfterExpiry() throws Exception {
+        final AtomicInteger fetches = new AtomicInteger();
+        final RecordingTransport transport = new RecordingTransport(request ->
+                RecordingTransport.response(200, (fetches.incrementAndGet() == 1)
+                        ? "[" + String.join(",", CHROME_120, PIXEL) + "]"
+                        : "[" + String.join(",", CHROME_121, PIXEL) + "]"));
+        final AutomateClient client = new AutomateClient("user", "key",
+                new HttpTransportConfig().setTransport(transport));
+        client.setCircuitBreaker(new CircuitBreaker());
+
+        final List<CatalogDiff> diffs = new CopyOnWriteArrayList<>();
+        client.addCatalogListener(diffs::add);
+        client.getBrowsers();
+        assertTrue(diffs.isEmpty());
+
+        expire(client, "browsers");
+        client.getBrowsers();
+        assertEquals(2, transport.getRequestCount());
+        assertEquals(1, diffs.size());
+        assertEquals("121.0", diffs.get(0).getAdded().get(0).getBrowserVersion());
+        assertEquals("120.0", diffs.get(0).getRemoved().get(0).getBrowserVersion());
+        client.close();
+    }
+
+    /**
+     * Backdates a cached value so that the next read finds it expired, without waiting a day.
+     */
+    private static void expire(final BrowserStackClient client, final String key) throws Exception {
+        final Field cacheField = BrowserStackClient.class.getDeclaredField("cacheMap");
+        cacheField.setAccessible(true);
+        final Field mapField = BrowserStackCache.class.getDeclaredField("cacheMap");
+        mapField.setAccessible(true);
+        final Object entry = ((Map<?, ?>) mapField.get(cacheField.get(client))).get(key);
+        final Field created = entry.getClass().getField("created");
+        created.setAccessible(true);
+        created.setLong(entry, 0);
+    }
+
+    @Test
+    public void testEmptySnapshots() throws Exception {
+        final CatalogDiff diff = CatalogDiff.between(Collections.emptyList(),
+                browsers("[" + String.join(",", Arrays.asList(CHROME_120, PIXEL)) + "]"));
+        assertEquals(2, diff.getAdded().size());
+        assertTrue(diff.getRemoved().isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package com.browserstack.client.catalog;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class VersionIndexTest {
+
+    /**
+     * Builds an index where value {@code i} is held by row {@code i}.
+     */
+    private static VersionIndex index(final String... values) {
+        final List<BitSet> rows = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            final BitSet row = new BitSet();
+            row.set(i);
+            rows.add(row);
+        }
+
+        return new VersionIndex(Arrays.asList(values), rows);
+    }
+
+    private static BitSet rows(final int... rows) {
+        final BitSet result = new BitSet();
+        for (int row : rows) {
+            result.set(row);
+        }
+
+        return result;
+    }
+
+    @Test
+    public void testSortsNumerically() {
+        final VersionIndex index = index("9.0", "120.0", "beta", "10", "Sonoma", "100.0.1");
+        assertEquals(Arrays.asList("9.0", "10", "100.0.1", "120.0"), index.getVersions());
+        assertEquals(4, index.size());
+        assertEquals("120.0", index.latest());
+        assertEquals("100.0.1", index.latest(1));
+        assertNull(index.latest(4));
+    }
+
+    @Test
+    public void testTrailingZerosAreOneVersion() {
+        final VersionIndex index = index("17", "17.0", "16.4");
+        assertEquals(Arrays.asList("16.4", "17"), index.getVersions());
+        assertEquals(rows(0, 1), index.rangeRows(Version.parse("17.0.0"), Version.parse("17")));
+    }
+
+    @Test
+    public void testRange() {
+        final VersionIndex index = index("118.0", "119.0", "120.0", "121.0");
+        assertEquals(rows(1, 2), index.rangeRows(Version.parse("119"), Version.parse("120")));
+        assertEquals(rows(2, 3), index.rangeRows(Version.parse("119.5"), null));
+        assertEquals(rows(0), index.rangeRows(null, Version.parse("118.9")));
+        assertTrue(index.rangeRows(Version.parse("122"), null).isEmpty());
+    }
+
+    @Test
+    public void testLatestRowsAmongCandidates() {
+        final VersionIndex index = index("118.0", "119.0", "120.0", "121.0");
+
+        // the newest versions are taken among the candidate rows only
+        assertEquals(rows(1, 2), index.latestRows(rows(0, 1, 2), 2, false));
+        assertEquals(rows(1), index.latestRows(rows(0, 1, 2), 2, true));
+        assertTrue(index.latestRows(rows(0), 2, true).isEmpty());
+    }
+
+    @Test
+    public void testParse() {
+        assertEquals(Version.parse("17"), Version.parse(" 17.0.0 "));
+        assertTrue(Version.parse("17.1").compareTo(Version.parse("17.0.9")) > 0);
+        assertTrue(Version.parse("10").compareTo(Version.parse("9.9")) > 0);
+        assertNull(Version.parse("17."));
+        assertNull(Version.parse("dev"));
+        assertNull(Version.parse("1234567890"));
+        assertNull(Version.parse(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidOffset() {
+        index("1").latest(-1);
+    }
+}
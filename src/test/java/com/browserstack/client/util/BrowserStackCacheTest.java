@@ -0,0 +1,228 @@
+package com.browserstack.client.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BrowserStackCacheTest {
+
+    private static final long HOUR = 3600000;
+
+    @Test
+    public void testSizeIsBounded() {
+        final BrowserStackCache<String, String> cache = new BrowserStackCache<>(HOUR, 10, 3);
+        for (int i = 0; i < 5; i++) {
+            cache.put("k" + i, "v" + i);
+        }
+
+        assertEquals(3, cache.size());
+        assertEquals(2, cache.getEvictionCount());
+        assertNull(cache.get("k0"));
+        assertEquals("v4", cache.get("k4"));
+    }
+
+    @Test
+    public void testLeastRecentlyReadIsEvicted() {
+        final BrowserStackCache<String, String> cache = new BrowserStackCache<>(HOUR, 10, 3);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        cache.get("a");
+        cache.put("d", "4");
+
+        assertTrue(cache.containsKey("a"));
+        assertFalse(cache.containsKey("b"));
+        assertTrue(cache.containsKey("c"));
+        assertTrue(cache.containsKey("d"));
+    }
+
+    @Test
+    public void testRefreshedKeysAreEvictedLast() {
+        final BrowserStackCache<String, String> cache = new BrowserStackCache<>(HOUR, 10, 3);
+        cache.put("refreshed", "r");
+        cache.refreshAhead("refreshed", () -> "r", HOUR);
+        cache.put("b", "2");
+        cache.put("c", "3");
+        cache.put("d", "4");
+
+        assertTrue(cache.containsKey("refreshed"));
+        assertFalse(cache.containsKey("b"));
+        cache.stopRefreshing();
+    }
+
+    @Test
+    public void testBoundHoldsWhenEveryKeyIsRefreshed() {
+        final BrowserStackCache<String, String> cache = new BrowserStackCache<>(HOUR, 10, 2);
+        for (String key : new String[]{"a", "b", "c"}) {
+            cache.refreshAhead(key, () -> key, HOUR);
+            cache.put(key, key);
+        }
+
+        assertEquals(2, cache.size());
+        assertFalse(cache.containsKey("a"));
+        cache.stopRefreshing();
+    }
+
+    @Test
+    public void testConcurrentPutsDoNotOverEvict() throws InterruptedException {
+        final BrowserStackCache<String, Integer> cache = new BrowserStackCache<>(HOUR, 10, 100);
+        final int threads = 8;
+        final int keysPerThread = 1000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * keysPerThread;
+            final Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                for (int i = 0; i < keysPerThread; i++) {
+                    cache.put("k" + (offset + i), i);
+                    cache.get("k" + (offset + i / 2));
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(100, cache.size());
+        assertEquals(threads * keysPerThread - 100, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testExpiredEntryIsAMiss() throws InterruptedException {
+        final BrowserStackCache<String, String> cache = new BrowserStackCache<>(1);
+        cache.put("a", "1");
+        Thread.sleep(20);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testPurgeRemovesExpiredEntries() throws InterruptedException {
+        final BrowserStackCache<String, String> cache = new BrowserStackCache<>(1);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        Thread.sleep(20);
+
+        cache.purgeExpired();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testRefreshAheadReplacesValueAndNotifies() throws InterruptedException {
+        final BrowserStackCache<String, Integer> cache = new BrowserStackCache<>(HOUR);
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch replaced = new CountDownLatch(1);
+        cache.addListener((key, previous, current) -> {
+            if (previous != null && previous == 0 && current > 0) {
+                replaced.countDown();
+            }
+        });
+
+        cache.put("a", 0);
+        cache.refreshAhead("a", loads::incrementAndGet, 10);
+
+        assertTrue(replaced.await(5, TimeUnit.SECONDS));
+        assertTrue(cache.get("a") > 0);
+        cache.stopRefreshing();
+    }
+
+    @Test
+    public void testFailedRefreshKeepsExpiredValue() throws InterruptedException {
+        final BrowserStackCache<String, String> cache = new BrowserStackCache<>(1);
+        cache.put("a", "stale");
+        cache.refreshAhead("a", () -> {
+            throw new IllegalStateException("unavailable");
+        }, 5);
+        Thread.sleep(50);
+
+        assertEquals("stale", cache.get("a"));
+        assertTrue(cache.getRefreshFailureCount() > 0);
+        cache.stopRefreshing();
+    }
+
+    @Test
+    public void testReloadsRunOnGivenExecutor() throws InterruptedException {
+        final BrowserStackCache<String, String> cache = new BrowserStackCache<>(HOUR);
+        final ExecutorService executor = TaskExecutors.newBoundedExecutor(1, "test-loader");
+        final CountDownLatch loaded = new CountDownLatch(1);
+        final AtomicReference<String> loaderThread = new AtomicReference<>();
+
+        cache.refreshAhead("a", () -> {
+            loaderThread.set(Thread.currentThread().getName());
+            loaded.countDown();
+            return "fresh";
+        }, 10, executor);
+
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        assertTrue(loaderThread.get().startsWith("test-loader-"));
+        cache.stopRefreshing();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testBlockedLoaderDoesNotStallOtherRefreshes() throws InterruptedException {
+        final BrowserStackCache<String, String> cache = new BrowserStackCache<>(HOUR);
+        final ExecutorService executor = TaskExecutors.newBoundedExecutor(4, "test-loader");
+        final CountDownLatch unblock = new CountDownLatch(1);
+        final AtomicInteger blockedLoads = new AtomicInteger();
+        final CountDownLatch otherLoads = new CountDownLatch(3);
+
+        cache.refreshAhead("blocked", () -> {
+            blockedLoads.incrementAndGet();
+            unblock.await();
+            return "late";
+        }, 5, executor);
+        cache.refreshAhead("other", () -> {
+            otherLoads.countDown();
+            return "fresh";
+        }, 5, executor);
+
+        assertTrue(otherLoads.await(5, TimeUnit.SECONDS));
+        // reloads of the blocked key are skipped while its first load is still running
+        assertEquals(1, blockedLoads.get());
+
+        unblock.countDown();
+        cache.stopRefreshing();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testRejectedReloadCountsAsFailure() throws InterruptedException {
+        final BrowserStackCache<String, String> cache = new BrowserStackCache<>(HOUR);
+        final ExecutorService executor = TaskExecutors.newBoundedExecutor(1, "test-loader");
+        executor.shutdown();
+
+        cache.put("a", "cached");
+        cache.refreshAhead("a", () -> "fresh", 5, executor);
+        Thread.sleep(50);
+
+        assertEquals("cached", cache.get("a"));
+        assertTrue(cache.getRefreshFailureCount() > 0);
+        cache.stopRefreshing();
+    }
+}
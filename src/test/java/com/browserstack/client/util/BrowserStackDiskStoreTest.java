@@ -0,0 +1,154 @@
+package com.browserstack.client.util;
+
+import com.browserstack.automate.AutomateClient;
+import com.browserstack.client.CircuitBreaker;
+import com.browserstack.client.HttpTransportConfig;
+import com.browserstack.client.RecordingTransport;
+import com.browserstack.client.model.Browser;
+import com.browserstack.client.model.BrowserListing;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BrowserStackDiskStoreTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String LISTING = "{\"desktop\":[{\"os\":\"Windows\",\"os_version\":\"11\","
+            + "\"browsers\":[{\"browser\":\"chrome\",\"browser_version\":\"120.0\"}]}],"
+            + "\"mobile\":[{\"os\":\"ios\",\"devices\":[{\"device\":\"iPhone 15\",\"os_version\":\"17\"}]}]}";
+    private static final long HOUR = 3600000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private BrowserStackDiskStore store;
+
+    @Before
+    public void setup() throws IOException {
+        directory = folder.newFolder("cache");
+        store = new BrowserStackDiskStore(directory, "api.example.com/automate", BrowserListing.class);
+    }
+
+    @Test
+    public void testListingRoundTripsAsJson() throws IOException {
+        final BrowserListing listing = MAPPER.readValue(LISTING, BrowserListing.class);
+        final long created = System.currentTimeMillis();
+        store.write("browsers", listing, created);
+
+        final BrowserStackDiskStore.Entry entry = store.read("browsers", HOUR);
+        assertTrue(entry.value instanceof BrowserListing);
+        assertEquals(created, entry.created);
+        assertEquals(MAPPER.readTree(LISTING), MAPPER.valueToTree(entry.value));
+    }
+
+    @Test
+    public void testExpiredEntryIsAMiss() throws IOException {
+        store.write("browsers", MAPPER.readValue(LISTING, BrowserListing.class), System.currentTimeMillis() - HOUR);
+        assertNull(store.read("browsers", HOUR));
+    }
+
+    @Test
+    public void testOnlyAllowedTypesAreStored() {
+        assertFalse(store.accepts(new HashMap<String, Object>()));
+        assertFalse(store.accepts(null));
+        assertTrue(store.accepts(new BrowserListing()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWritingOtherTypeFails() throws IOException {
+        store.write("browsers", new HashMap<String, Object>(), System.currentTimeMillis());
+    }
+
+    @Test
+    public void testFileNamingAnotherTypeIsIgnored() throws IOException {
+        store.write("browsers", new BrowserListing(), System.currentTimeMillis());
+        final File file = directory.listFiles()[0];
+        writeEntry(file, 2, "java.util.HashMap", "{}");
+
+        assertNull(store.read("browsers", HOUR));
+    }
+
+    @Test
+    public void testFileOfPreviousFormatIsIgnored() throws IOException {
+        store.write("browsers", new BrowserListing(), System.currentTimeMillis());
+        final File file = directory.listFiles()[0];
+        writeEntry(file, 1, BrowserListing.class.getName(), "{}");
+
+        assertNull(store.read("browsers", HOUR));
+    }
+
+    @Test
+    public void testCacheFallsBackToDisk() throws IOException {
+        final BrowserStackCache<String, Object> first = new BrowserStackCache<>(HOUR);
+        first.setDiskStore(store);
+        first.put("browsers", MAPPER.readValue(LISTING, BrowserListing.class));
+        first.put("ignored", "not a listing");
+
+        final BrowserStackCache<String, Object> second = new BrowserStackCache<>(HOUR);
+        second.setDiskStore(store);
+        assertTrue(second.get("browsers") instanceof BrowserListing);
+        assertNull(second.get("ignored"));
+    }
+
+    @Test
+    public void testBrowserListRoundTripsThroughClients() throws Exception {
+        final String browsers = "[{\"os\":\"Windows\",\"os_version\":\"11\",\"browser\":\"chrome\","
+                + "\"browser_version\":\"120.0\"},{\"os\":\"ios\",\"os_version\":\"17\","
+                + "\"device\":\"iPhone 15\"}]";
+        final RecordingTransport transport = RecordingTransport.json(200, browsers);
+
+        final AutomateClient first = newClient(transport);
+        final List<Browser> fetched = first.getBrowsers();
+        first.close();
+        assertEquals(1, transport.getRequestCount());
+
+        final AutomateClient second = newClient(transport);
+        final List<Browser> cached = second.getBrowsers();
+        assertEquals(1, transport.getRequestCount());
+        assertEquals(MAPPER.valueToTree(fetched), MAPPER.valueToTree(cached));
+        assertEquals("iPhone 15", cached.get(1).getDevice());
+        assertEquals(2, second.getBrowserCatalog().size());
+        second.close();
+    }
+
+    private AutomateClient newClient(final RecordingTransport transport) {
+        final AutomateClient client = new AutomateClient("user", "key",
+                new HttpTransportConfig().setTransport(transport));
+        client.setCircuitBreaker(new CircuitBreaker());
+        client.setCacheDirectory(directory);
+        return client;
+    }
+
+    private static void writeEntry(final File file, final int version, final String type, final String json)
+            throws IOException {
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        final DataOutputStream payloadOut = new DataOutputStream(payload);
+        payloadOut.writeUTF(type);
+        payloadOut.write(json.getBytes("UTF-8"));
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x42534331);
+        out.writeInt(version);
+        out.writeLong(System.currentTimeMillis());
+        out.writeInt(payload.size());
+        payload.writeTo(out);
+        Files.write(file.toPath(), bytes.toByteArray());
+    }
+}
@@ -0,0 +1,54 @@
+package com.browserstack.client.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class StreamsTest {
+
+    @Test
+    public void testCopiesBodyLargerThanBuffer() throws IOException {
+        final byte[] body = new byte[200000];
+        new Random(42).nextBytes(body);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(body.length, Streams.copy(new ByteArrayInputStream(body), out));
+        assertArrayEquals(body, out.toByteArray());
+    }
+
+    @Test
+    public void testCopiesRemainderOfStream() throws IOException {
+        final ByteArrayInputStream in = new ByteArrayInputStream(new byte[]{1, 2, 3, 4});
+        in.read();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(3, Streams.copy(in, out));
+        assertEquals(0, Streams.copy(in, out));
+        assertArrayEquals(new byte[]{2, 3, 4}, out.toByteArray());
+    }
+
+    @Test
+    public void testReadFailureIsRethrown() {
+        final InputStream in = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+
+        try {
+            Streams.copy(in, new ByteArrayOutputStream());
+            fail();
+        } catch (IOException e) {
+            assertEquals("connection reset", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.browserstack.client.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaskExecutorsTest {
+
+    private static boolean hasVirtualThreads() {
+        try {
+            Thread.class.getMethod("ofVirtual").invoke(null);
+            return true;
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    @Test
+    public void testVirtualThreadsDetectedFromRuntime() {
+        assertEquals(hasVirtualThreads(), TaskExecutors.isVirtualThreadExecutor());
+    }
+
+    @Test
+    public void testFanOutExecutorNamesThreads() throws Exception {
+        final ExecutorService executor = TaskExecutors.newFanOutExecutor(2, "fan-out-test");
+        try {
+            final Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+            assertTrue(name.get(5, TimeUnit.SECONDS).startsWith("fan-out-test-"));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testBoundedExecutorCapsConcurrency() throws Exception {
+        final ExecutorService executor = TaskExecutors.newBoundedExecutor(2, "bounded-test");
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(8);
+
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= 2);
+        executor.shutdown();
+    }
+
+    @Test
+    public void testThreadFactoryCreatesDaemonThreads() {
+        final Thread thread = TaskExecutors.newThreadFactory("daemon-test").newThread(() -> { });
+        assertTrue(thread.isDaemon());
+        assertEquals("daemon-test-1", thread.getName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxThreads() {
+        TaskExecutors.newFanOutExecutor(0, "invalid");
+    }
+}